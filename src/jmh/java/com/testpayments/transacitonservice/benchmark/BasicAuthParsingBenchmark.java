@@ -0,0 +1,50 @@
+package com.testpayments.transacitonservice.benchmark;
+
+import com.testpayments.transacitonservice.auth.BasicAuthCredentialsParser;
+import com.testpayments.transacitonservice.auth.MerchantCredentialCache;
+import com.testpayments.transacitonservice.auth.MerchantCredentials;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous {@code AuthServiceImpl.retrieveMerchantIdAndSecretKey} parsing with
+ * {@link BasicAuthCredentialsParser}. Both variants hash the secret so the work they do is equivalent;
+ * {@code ./gradlew jmh} runs with the gc profiler, which reports the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BasicAuthParsingBenchmark {
+
+    private final String header = "Basic " + Base64.getEncoder()
+            .encodeToString("4bb5752d-e861-483f-8075-a763295a9d07:secret".getBytes(StandardCharsets.UTF_8));
+
+    @Benchmark
+    public MerchantCredentials legacyParser() {
+        String base64Credentials = header.substring("Basic".length()).trim();
+        byte[] credDecoded = Base64.getDecoder().decode(base64Credentials);
+        String credentials = new String(credDecoded, StandardCharsets.UTF_8);
+        String[] data = credentials.split(":", 2);
+        Map<String, String> merchantIdAndSecretKey = new HashMap<>();
+        merchantIdAndSecretKey.put("id", data[0]);
+        merchantIdAndSecretKey.put("secret", data[1]);
+        return new MerchantCredentials(UUID.fromString(merchantIdAndSecretKey.get("id")),
+                MerchantCredentialCache.hash(merchantIdAndSecretKey.get("secret")));
+    }
+
+    @Benchmark
+    public MerchantCredentials bufferedParser() {
+        return BasicAuthCredentialsParser.parse(header);
+    }
+}
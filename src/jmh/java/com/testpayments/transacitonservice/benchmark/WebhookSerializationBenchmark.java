@@ -0,0 +1,68 @@
+package com.testpayments.transacitonservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.testpayments.transacitonservice.dto.CustomerDataDto;
+import com.testpayments.transacitonservice.dto.TopUpCardDataDto;
+import com.testpayments.transacitonservice.dto.WebhookDto;
+import com.testpayments.transacitonservice.entity.Status;
+import com.testpayments.transacitonservice.service.webhook.WebhookPayloadWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous {@code WebhookJob.convertDtoToJson}, which built and configured a new
+ * {@link ObjectMapper} per webhook and then encoded the string again for the HTTP body, with
+ * {@link WebhookPayloadWriter}, which serializes once into bytes through a shared writer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WebhookSerializationBenchmark {
+
+    private final WebhookPayloadWriter payloadWriter = new WebhookPayloadWriter(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    private final WebhookDto webhookDto = WebhookDto.builder()
+            .paymentMethod("Card")
+            .amount(new BigDecimal("100.50"))
+            .currency("USD")
+            .type("Transaction")
+            .transactionId(UUID.randomUUID())
+            .createdAt(LocalDateTime.now())
+            .updatedAt(LocalDateTime.now())
+            .topUpCardDataDto(TopUpCardDataDto.builder()
+                    .cardNumber("4102778822334893")
+                    .build())
+            .language("en")
+            .customerDataDto(CustomerDataDto.builder()
+                    .firstName("John")
+                    .lastName("Doe")
+                    .build())
+            .status(Status.APPROVED)
+            .message("OK")
+            .build();
+
+    @Benchmark
+    public byte[] mapperPerWebhook() throws JsonProcessingException {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        String json = mapper.writeValueAsString(webhookDto);
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] sharedWriter() {
+        return payloadWriter.write(webhookDto);
+    }
+}
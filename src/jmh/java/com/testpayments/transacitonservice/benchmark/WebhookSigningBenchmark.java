@@ -0,0 +1,76 @@
+package com.testpayments.transacitonservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.testpayments.transacitonservice.dto.CustomerDataDto;
+import com.testpayments.transacitonservice.dto.TopUpCardDataDto;
+import com.testpayments.transacitonservice.dto.WebhookDto;
+import com.testpayments.transacitonservice.entity.Status;
+import com.testpayments.transacitonservice.service.webhook.WebhookPayloadWriter;
+import com.testpayments.transacitonservice.service.webhook.WebhookSigningKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of signing one webhook payload: a {@link Mac} looked up and initialized per webhook
+ * compared with {@link WebhookSigningKey}, which reuses one {@link Mac} per thread and only re-initializes it.
+ * Both include the hex encoding of the header value.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class WebhookSigningBenchmark {
+
+    private static final String SECRET = "whsec_3f8a1c0d9b7e4a2f8c6d5e1b0a9f7c3d";
+
+    private final WebhookSigningKey signingKey = new WebhookSigningKey(SECRET);
+
+    private final byte[] payload = new WebhookPayloadWriter(new ObjectMapper().registerModule(new JavaTimeModule()))
+            .write(WebhookDto.builder()
+                    .paymentMethod("Card")
+                    .amount(new BigDecimal("100.50"))
+                    .currency("USD")
+                    .type("Transaction")
+                    .transactionId(UUID.randomUUID())
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .topUpCardDataDto(TopUpCardDataDto.builder()
+                            .cardNumber("4102778822334893")
+                            .build())
+                    .language("en")
+                    .customerDataDto(CustomerDataDto.builder()
+                            .firstName("John")
+                            .lastName("Doe")
+                            .build())
+                    .status(Status.APPROVED)
+                    .message("OK")
+                    .build());
+
+    @Benchmark
+    public String macPerWebhook() throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(payload));
+    }
+
+    @Benchmark
+    public String cachedSigningKey() {
+        return HexFormat.of().formatHex(signingKey.sign(payload));
+    }
+}
@@ -0,0 +1,50 @@
+package com.testpayments.transacitonservice.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.testpayments.transacitonservice.config.AuthFailureLimiterProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket over authentication failures, keyed by merchant id or remote address. Every bucket is a
+ * single {@link AtomicLong} holding the time at which it is full again (GCRA form of the token bucket),
+ * so recording a failure and checking a key are one CAS and one volatile read, without locks.
+ */
+@Component
+public class AuthFailureLimiter {
+
+    private final Cache<Object, AtomicLong> buckets;
+    private final long refillPeriodNanos;
+    private final long burstToleranceNanos;
+    private final Counter rejections;
+
+    public AuthFailureLimiter(AuthFailureLimiterProperties properties, MeterRegistry meterRegistry) {
+        this.refillPeriodNanos = properties.getRefillPeriod().toNanos();
+        this.burstToleranceNanos = refillPeriodNanos * (properties.getCapacity() - 1);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumKeys())
+                .expireAfterAccess(Duration.ofNanos(refillPeriodNanos * properties.getCapacity()))
+                .build();
+        this.rejections = meterRegistry.counter("auth.failure.limiter.rejections");
+    }
+
+    public boolean isBlocked(Object key) {
+        AtomicLong fullAt = buckets.getIfPresent(key);
+        if (fullAt != null && fullAt.get() - System.nanoTime() > burstToleranceNanos) {
+            rejections.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public void recordFailure(Object key) {
+        long now = System.nanoTime();
+        buckets.get(key, k -> new AtomicLong(now))
+                .accumulateAndGet(now, (fullAt, time) -> Math.max(fullAt - time, 0) + time + refillPeriodNanos);
+    }
+}
@@ -1,5 +1,8 @@
 package com.testpayments.transacitonservice.auth;
 
+import com.testpayments.transacitonservice.config.AuthFailureLimiterProperties;
+import com.testpayments.transacitonservice.exception.CustomNotFoundException;
+import com.testpayments.transacitonservice.exception.UnauthorizedException;
 import com.testpayments.transacitonservice.util.ApplicationConstants;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -9,19 +12,38 @@ import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
 @Component
 @RequiredArgsConstructor
 public class AuthenticationFilter implements WebFilter {
 
     private static final String HEADER_NAME = "Authorization";
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
 
     private final AuthService authService;
+    private final AuthFailureLimiter authFailureLimiter;
+    private final AuthFailureLimiterProperties authFailureLimiterProperties;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         String authHeader = exchange.getRequest().getHeaders().getFirst(HEADER_NAME);
+        String remoteAddress = resolveRemoteAddress(exchange);
+
+        if (Objects.nonNull(remoteAddress) && authFailureLimiter.isBlocked(remoteAddress)) {
+            exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            return exchange.getResponse().setComplete();
+        }
 
         return authService.authenticate(authHeader)
+                .doOnError(this::isAuthenticationFailure, e -> {
+                    if (Objects.nonNull(remoteAddress)) {
+                        authFailureLimiter.recordFailure(remoteAddress);
+                    }
+                })
                 .flatMap(merchantId -> {
                     exchange.getAttributes().put(ApplicationConstants.MERCHANT_ID_KEY, merchantId);
                     return chain.filter(exchange);
@@ -31,4 +53,40 @@ public class AuthenticationFilter implements WebFilter {
                     return exchange.getResponse().setComplete();
                 });
     }
+
+    private boolean isAuthenticationFailure(Throwable error) {
+        return error instanceof UnauthorizedException || error instanceof CustomNotFoundException;
+    }
+
+    /**
+     * The client address failures are counted against. X-Forwarded-For is only read when the TCP peer is
+     * one of {@code auth.failure-limiter.trusted-proxies}, and then walked from the right, skipping the
+     * trusted hops, so a client cannot pick its own key by sending the header itself. Behind a proxy that
+     * is not listed, every client shares the proxy's bucket.
+     */
+    private String resolveRemoteAddress(ServerWebExchange exchange) {
+        String peer = hostAddress(exchange.getRequest().getRemoteAddress());
+        Set<String> trustedProxies = authFailureLimiterProperties.getTrustedProxies();
+        if (Objects.isNull(peer) || !trustedProxies.contains(peer)) {
+            return peer;
+        }
+        List<String> forwardedFor = exchange.getRequest().getHeaders().getValuesAsList(FORWARDED_FOR_HEADER);
+        String client = peer;
+        for (int i = forwardedFor.size() - 1; i >= 0; i--) {
+            client = forwardedFor.get(i);
+            if (!trustedProxies.contains(client)) {
+                break;
+            }
+        }
+        return client;
+    }
+
+    private String hostAddress(InetSocketAddress remoteAddress) {
+        if (Objects.isNull(remoteAddress)) {
+            return null;
+        }
+        return Objects.nonNull(remoteAddress.getAddress())
+                ? remoteAddress.getAddress().getHostAddress()
+                : remoteAddress.getHostString();
+    }
 }
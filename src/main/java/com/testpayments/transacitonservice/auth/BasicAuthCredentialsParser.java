@@ -0,0 +1,132 @@
+package com.testpayments.transacitonservice.auth;
+
+import com.testpayments.transacitonservice.exception.UnauthorizedException;
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Parses {@code Basic base64(merchantId:secret)} headers without intermediate strings or collections:
+ * the credentials are decoded into a per-thread buffer, the merchant id is read straight from the bytes
+ * and the secret is only ever materialized as its hash.
+ */
+@UtilityClass
+public class BasicAuthCredentialsParser {
+
+    private static final String BASIC_PREFIX = "Basic";
+    private static final int MAX_DECODED_LENGTH = 256;
+    private static final int UUID_LENGTH = 36;
+    private static final byte CREDENTIALS_SEPARATOR = ':';
+    private static final char PADDING = '=';
+    private static final int INVALID_SEXTET = -1;
+    private static final byte[] SEXTETS = new byte[128];
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[MAX_DECODED_LENGTH]);
+
+    static {
+        Arrays.fill(SEXTETS, (byte) INVALID_SEXTET);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            SEXTETS[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    public static MerchantCredentials parse(String authenticationHeader) {
+        if (Objects.isNull(authenticationHeader)) {
+            throw new UnauthorizedException("Auth header is null");
+        }
+        if (!authenticationHeader.regionMatches(true, 0, BASIC_PREFIX, 0, BASIC_PREFIX.length())) {
+            throw new UnauthorizedException("Auth header is not Basic");
+        }
+        int from = BASIC_PREFIX.length();
+        int to = authenticationHeader.length();
+        if (from == to || !Character.isWhitespace(authenticationHeader.charAt(from))) {
+            throw malformed();
+        }
+        while (from < to && Character.isWhitespace(authenticationHeader.charAt(from))) {
+            from++;
+        }
+        while (to > from && Character.isWhitespace(authenticationHeader.charAt(to - 1))) {
+            to--;
+        }
+
+        byte[] buffer = BUFFER.get();
+        try {
+            int length = decode(authenticationHeader, from, to, buffer);
+            if (length <= UUID_LENGTH || buffer[UUID_LENGTH] != CREDENTIALS_SEPARATOR) {
+                throw malformed();
+            }
+            UUID merchantId = parseUuid(buffer);
+            byte[] secretHash = MerchantCredentialCache.hash(buffer, UUID_LENGTH + 1, length - UUID_LENGTH - 1);
+            return new MerchantCredentials(merchantId, secretHash);
+        } finally {
+            Arrays.fill(buffer, (byte) 0);
+        }
+    }
+
+    private static int decode(String source, int from, int to, byte[] target) {
+        int encodedLength = to - from;
+        if (encodedLength == 0 || encodedLength % 4 != 0) {
+            throw malformed();
+        }
+        int padding = source.charAt(to - 1) == PADDING ? (source.charAt(to - 2) == PADDING ? 2 : 1) : 0;
+        int decodedLength = encodedLength / 4 * 3 - padding;
+        if (decodedLength > target.length) {
+            throw malformed();
+        }
+        int paddingFrom = to - padding;
+        int position = 0;
+        for (int i = from; i < to; i += 4) {
+            int bits = sextet(source, i, paddingFrom) << 18
+                    | sextet(source, i + 1, paddingFrom) << 12
+                    | sextet(source, i + 2, paddingFrom) << 6
+                    | sextet(source, i + 3, paddingFrom);
+            target[position++] = (byte) (bits >> 16);
+            if (position < decodedLength) {
+                target[position++] = (byte) (bits >> 8);
+            }
+            if (position < decodedLength) {
+                target[position++] = (byte) bits;
+            }
+        }
+        return decodedLength;
+    }
+
+    private static int sextet(String source, int index, int paddingFrom) {
+        if (index >= paddingFrom) {
+            return 0;
+        }
+        char symbol = source.charAt(index);
+        int sextet = symbol < SEXTETS.length ? SEXTETS[symbol] : INVALID_SEXTET;
+        if (sextet == INVALID_SEXTET) {
+            throw malformed();
+        }
+        return sextet;
+    }
+
+    private static UUID parseUuid(byte[] buffer) {
+        if (buffer[8] != '-' || buffer[13] != '-' || buffer[18] != '-' || buffer[23] != '-') {
+            throw malformed();
+        }
+        long mostSigBits = hex(buffer, 0, 8) << 32 | hex(buffer, 9, 13) << 16 | hex(buffer, 14, 18);
+        long leastSigBits = hex(buffer, 19, 23) << 48 | hex(buffer, 24, UUID_LENGTH);
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private static long hex(byte[] buffer, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(buffer[i], 16);
+            if (digit < 0) {
+                throw malformed();
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    private static UnauthorizedException malformed() {
+        return new UnauthorizedException("Auth header is malformed");
+    }
+}
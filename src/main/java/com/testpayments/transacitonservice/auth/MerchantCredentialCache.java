@@ -0,0 +1,89 @@
+package com.testpayments.transacitonservice.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.testpayments.transacitonservice.config.MerchantCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Bounded in-process cache of merchant credentials. Only SHA-256 hashes of the secret keys are kept,
+ * entries expire after {@code auth.merchant-cache.ttl}. The service has no merchant update path, and
+ * merchants are changed in the database directly, so expiry is the only invalidation: a rotated key or a
+ * disabled merchant takes effect at the latest one TTL later, on every replica. Merchant ids that were not
+ * found are remembered for {@code auth.merchant-cache.unknown-merchant-ttl} so repeated bad requests skip
+ * the database, and a newly created merchant can authenticate at the latest that long after creation.
+ */
+@Component
+public class MerchantCredentialCache {
+
+    private static final String CACHE_NAME = "merchant.credentials";
+    private static final String UNKNOWN_CACHE_NAME = "merchant.unknown";
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(MerchantCredentialCache::newDigest);
+
+    private final Cache<UUID, byte[]> secretHashes;
+    private final Cache<UUID, Boolean> unknownMerchants;
+
+    public MerchantCredentialCache(MerchantCacheProperties properties, MeterRegistry meterRegistry) {
+        this.secretHashes = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.unknownMerchants = Caffeine.newBuilder()
+                .maximumSize(properties.getUnknownMerchantMaximumSize())
+                .expireAfterWrite(properties.getUnknownMerchantTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, secretHashes, CACHE_NAME);
+        CaffeineCacheMetrics.monitor(meterRegistry, unknownMerchants, UNKNOWN_CACHE_NAME);
+    }
+
+    public Optional<byte[]> findSecretHash(UUID merchantId) {
+        return Optional.ofNullable(secretHashes.getIfPresent(merchantId));
+    }
+
+    public byte[] put(UUID merchantId, String secretKey) {
+        byte[] secretHash = hash(secretKey);
+        secretHashes.put(merchantId, secretHash);
+        return secretHash;
+    }
+
+    public boolean isUnknown(UUID merchantId) {
+        return unknownMerchants.getIfPresent(merchantId) != null;
+    }
+
+    public void markUnknown(UUID merchantId) {
+        unknownMerchants.put(merchantId, Boolean.TRUE);
+    }
+
+    public static byte[] hash(String secretKey) {
+        return DIGEST.get().digest(secretKey.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static byte[] hash(byte[] secretKey, int offset, int length) {
+        MessageDigest digest = DIGEST.get();
+        digest.update(secretKey, offset, length);
+        return digest.digest();
+    }
+
+    public static boolean matches(byte[] expectedHash, byte[] actualHash) {
+        return MessageDigest.isEqual(expectedHash, actualHash);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Hash algorithm " + HASH_ALGORITHM + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.testpayments.transacitonservice.auth;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+public class MerchantCredentials {
+
+    private final UUID merchantId;
+    private final byte[] secretHash;
+}
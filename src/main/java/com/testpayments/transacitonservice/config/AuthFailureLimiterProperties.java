@@ -0,0 +1,22 @@
+package com.testpayments.transacitonservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "auth.failure-limiter")
+public class AuthFailureLimiterProperties {
+
+    private int capacity = 20;
+    private Duration refillPeriod = Duration.ofSeconds(3);
+    private long maximumKeys = 100_000;
+    private Duration throttleDelay = Duration.ofSeconds(1);
+    // Peers whose X-Forwarded-For is believed; with none, failures are keyed on the TCP peer only.
+    private Set<String> trustedProxies = new HashSet<>();
+}
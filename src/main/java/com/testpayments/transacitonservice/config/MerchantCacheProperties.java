@@ -0,0 +1,18 @@
+package com.testpayments.transacitonservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "auth.merchant-cache")
+public class MerchantCacheProperties {
+
+    private Duration ttl = Duration.ofSeconds(60);
+    private long maximumSize = 10_000;
+    private Duration unknownMerchantTtl = Duration.ofSeconds(30);
+    private long unknownMerchantMaximumSize = 100_000;
+}
@@ -0,0 +1,19 @@
+package com.testpayments.transacitonservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "partition.maintenance")
+public class PartitionMaintenanceProperties {
+
+    private String cron = "0 0 3 * * *";
+    private int monthsAhead = 3;
+    private int transactionsRetentionMonths = 24;
+    private int webhooksRetentionMonths = 6;
+    private Duration lockTimeout = Duration.ofSeconds(5);
+}
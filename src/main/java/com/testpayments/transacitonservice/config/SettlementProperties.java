@@ -0,0 +1,24 @@
+package com.testpayments.transacitonservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "settlement")
+public class SettlementProperties {
+
+    private boolean batchEnabled = false;
+    private int batchSize = 500;
+    private int concurrency = 4;
+    private int prefetch = 32;
+    private String nodeId = UUID.randomUUID().toString();
+    private Duration leaseDuration = Duration.ofSeconds(60);
+    private Duration initialDelay = Duration.ofSeconds(10);
+    private Duration pollInterval = Duration.ofSeconds(5);
+    private Duration maxIdleDelay = Duration.ofSeconds(30);
+}
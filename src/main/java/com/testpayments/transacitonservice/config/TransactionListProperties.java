@@ -0,0 +1,17 @@
+package com.testpayments.transacitonservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transaction.list")
+public class TransactionListProperties {
+
+    private int maxPageSize = 100;
+    // Applied to an omitted start_date or end_date; the resulting range is echoed in X-Window-Start and X-Window-End.
+    private Duration defaultWindow = Duration.ofDays(30);
+}
@@ -1,14 +1,71 @@
 package com.testpayments.transacitonservice.config;
 
+import com.testpayments.transacitonservice.entity.WebhookProtocol;
+import com.testpayments.transacitonservice.service.webhook.WebhookClients;
+import io.netty.channel.ChannelOption;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Map;
 
 @Configuration
 public class WebClientConfig {
 
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider webhookConnectionProvider(WebhookClientProperties properties) {
+        return connectionProvider("webhooks", properties.getMaxConnectionsPerHost(), properties);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider webhookHttp2ConnectionProvider(WebhookClientProperties properties) {
+        return connectionProvider("webhooks-h2", properties.getHttp2MaxConnectionsPerHost(), properties);
+    }
+
     @Bean
-    public WebClient.Builder getWebClientBuilder() {
-        return WebClient.builder();
+    public WebhookClients webhookClients(ConnectionProvider webhookConnectionProvider,
+                                         ConnectionProvider webhookHttp2ConnectionProvider,
+                                         WebhookClientProperties properties) {
+        return new WebhookClients(Map.of(
+                WebhookProtocol.HTTP1, webClient(httpClient(webhookConnectionProvider, properties)),
+                WebhookProtocol.H2C, webClient(httpClient(webhookHttp2ConnectionProvider, properties)
+                        .protocol(HttpProtocol.H2C)
+                        .http2Settings(settings -> settings.maxConcurrentStreams(properties.getHttp2MaxConcurrentStreams()))),
+                WebhookProtocol.H2, webClient(httpClient(webhookHttp2ConnectionProvider, properties)
+                        .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                        .http2Settings(settings -> settings.maxConcurrentStreams(properties.getHttp2MaxConcurrentStreams())))));
+    }
+
+    private static ConnectionProvider connectionProvider(String name, int maxConnections, WebhookClientProperties properties) {
+        return ConnectionProvider.builder(name)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .evictInBackground(properties.getEvictionInterval())
+                .metrics(true)
+                .build();
+    }
+
+    private static HttpClient httpClient(ConnectionProvider connectionProvider, WebhookClientProperties properties) {
+        return HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                // Bounds every read of one response and is removed when it completes, so it also holds on
+                // pooled and multiplexed connections, unlike a handler added once in doOnConnected.
+                .responseTimeout(properties.getResponseTimeout())
+                .metrics(true, uri -> "/webhook");
+    }
+
+    private static WebClient webClient(HttpClient httpClient) {
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
     }
 }
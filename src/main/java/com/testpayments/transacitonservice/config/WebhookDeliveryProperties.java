@@ -0,0 +1,30 @@
+package com.testpayments.transacitonservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "webhook.delivery")
+public class WebhookDeliveryProperties {
+
+    private int batchSize = 100;
+    private int concurrency = 16;
+    private String nodeId = UUID.randomUUID().toString();
+    // Must outlast a whole pass: batch-size / concurrency rounds of the slowest send
+    // (pending-acquire + connect + response timeout, about 17s with the defaults).
+    private Duration leaseDuration = Duration.ofSeconds(180);
+    private Duration initialDelay = Duration.ofSeconds(10);
+    private Duration pollInterval = Duration.ofSeconds(1);
+    private Duration maxIdleDelay = Duration.ofSeconds(10);
+    private List<Duration> retrySchedule = List.of(Duration.ofSeconds(1), Duration.ofSeconds(10), Duration.ofMinutes(1),
+            Duration.ofMinutes(10), Duration.ofHours(1), Duration.ofHours(6));
+    private Duration merchantSettingsTtl = Duration.ofSeconds(60);
+    private int maxBatchItems = 100;
+    private Duration signingKeyOverlap = Duration.ofHours(24);
+}
@@ -0,0 +1,23 @@
+package com.testpayments.transacitonservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "webhook.endpoint-guard")
+public class WebhookEndpointGuardProperties {
+
+    private float failureRateThreshold = 50;
+    private int slidingWindowSize = 20;
+    private int minimumNumberOfCalls = 10;
+    private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+    private int permittedCallsInHalfOpenState = 3;
+    private int maxConcurrentCallsPerHost = 20;
+    private long maximumHosts = 10_000;
+    private Duration idleHostExpiry = Duration.ofHours(1);
+    private Duration parkDuration = Duration.ofSeconds(10);
+}
@@ -0,0 +1,45 @@
+package com.testpayments.transacitonservice.dto;
+
+import com.testpayments.transacitonservice.exception.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a transaction list, the (created_at, id) of the last transaction a client has seen.
+ * Clients get it as an opaque token and send it back unchanged to read the next page.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime createdAt;
+    private final UUID transactionId;
+
+    public static TransactionCursor after(TransactionResponse transaction) {
+        return new TransactionCursor(transaction.getCreatedAt(), transaction.getTransactionId());
+    }
+
+    public String encode() {
+        String position = createdAt + SEPARATOR + transactionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String token) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = position.indexOf(SEPARATOR);
+            return new TransactionCursor(LocalDateTime.parse(position.substring(0, separator)),
+                    UUID.fromString(position.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidCursorException("Cursor is not valid");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.testpayments.transacitonservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of a transaction list. {@code windowStart} and {@code windowEnd} are the unix timestamps the
+ * list was actually bounded by: the requested start_date and end_date, or, for an omitted date, the
+ * {@code transaction.list.default-window} ending now. They are returned as X-Window-Start and
+ * X-Window-End, so a client can tell "nothing in this window" from "no older data" and ask for an
+ * earlier range. A window without transactions is an empty page, not an error.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionPage {
+
+    private final List<TransactionResponse> transactions;
+    private final String nextCursor;
+    private final long windowStart;
+    private final long windowEnd;
+
+    public static TransactionPage of(List<TransactionResponse> rows, int size, long windowStart, long windowEnd) {
+        if (rows.size() <= size) {
+            return new TransactionPage(rows, null, windowStart, windowEnd);
+        }
+        List<TransactionResponse> transactions = rows.subList(0, size);
+        return new TransactionPage(transactions, TransactionCursor.after(transactions.get(size - 1)).encode(), windowStart, windowEnd);
+    }
+}
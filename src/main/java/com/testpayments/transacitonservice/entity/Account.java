@@ -24,4 +24,5 @@ public class Account {
     private String currency;
     private BigDecimal balance;
     private UUID merchantId;
+    private Integer balanceBuckets;
 }
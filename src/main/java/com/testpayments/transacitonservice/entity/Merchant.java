@@ -25,4 +25,9 @@ public class Merchant {
     private LocalDateTime createdAt;
     private String companyRecognition;
     private String country;
+    private WebhookProtocol webhookProtocol;
+    private boolean webhookBatching;
+    private String webhookSigningKey;
+    private String webhookPreviousSigningKey;
+    private LocalDateTime webhookSigningKeyRotatedAt;
 }
@@ -32,4 +32,6 @@ public class Transaction {
     private Type type;
     private UUID cardId;
     private UUID accountId;
+    private String claimedBy;
+    private LocalDateTime claimedUntil;
 }
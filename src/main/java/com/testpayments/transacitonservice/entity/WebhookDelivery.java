@@ -0,0 +1,35 @@
+package com.testpayments.transacitonservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "webhook_deliveries")
+public class WebhookDelivery {
+
+    @Id
+    private UUID id;
+    private UUID transactionId;
+    private LocalDateTime transactionCreatedAt;
+    private UUID merchantId;
+    private String notificationUrl;
+    private WebhookDeliveryStatus deliveryStatus;
+    private Integer attemptCount;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private String claimedBy;
+    private LocalDateTime claimedUntil;
+}
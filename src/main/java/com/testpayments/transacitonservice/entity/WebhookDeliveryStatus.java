@@ -0,0 +1,7 @@
+package com.testpayments.transacitonservice.entity;
+
+public enum WebhookDeliveryStatus {
+    PENDING,
+    DELIVERED,
+    FAILED
+}
@@ -0,0 +1,7 @@
+package com.testpayments.transacitonservice.entity;
+
+public enum WebhookProtocol {
+    HTTP1,
+    H2C,
+    H2
+}
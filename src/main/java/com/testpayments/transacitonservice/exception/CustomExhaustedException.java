@@ -1,4 +0,0 @@
-package com.testpayments.transacitonservice.exception;
-
-public class CustomExhaustedException extends RuntimeException {
-}
@@ -0,0 +1,8 @@
+package com.testpayments.transacitonservice.exception;
+
+public class InvalidCursorException extends InvalidPageRequestException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
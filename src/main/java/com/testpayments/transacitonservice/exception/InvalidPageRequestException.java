@@ -0,0 +1,8 @@
+package com.testpayments.transacitonservice.exception;
+
+public class InvalidPageRequestException extends RuntimeException {
+
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+}
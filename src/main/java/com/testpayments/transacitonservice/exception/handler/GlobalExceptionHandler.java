@@ -3,6 +3,7 @@ package com.testpayments.transacitonservice.exception.handler;
 import com.testpayments.transacitonservice.exception.CustomNotFoundException;
 import com.testpayments.transacitonservice.exception.ErrorResponse;
 import com.testpayments.transacitonservice.exception.InsufficientFundsException;
+import com.testpayments.transacitonservice.exception.InvalidPageRequestException;
 import com.testpayments.transacitonservice.exception.UnauthorizedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -37,6 +38,12 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(InvalidPageRequestException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleInvalidPageRequestException(InvalidPageRequestException ex) {
+        ErrorResponse errorResponse = new ErrorResponse("FAILED", ex.getMessage());
+        return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
+    }
+
     @ExceptionHandler(InsufficientFundsException.class)
     public Mono<ResponseEntity<ErrorResponse>> handleCustomNotFoundException(InsufficientFundsException ex) {
         ErrorResponse errorResponse = new ErrorResponse("FAILED", "PAYMENT_METHOD_NOT_ALLOWED");
@@ -6,12 +6,36 @@ import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
 import java.util.UUID;
 
 public interface AccountRepository extends R2dbcRepository<Account, UUID> {
 
     Mono<Account> findAccountByMerchantIdAndCurrency(UUID merchantId, String currency);
-    @Query("SELECT * FROM accounts where id = :id FOR UPDATE ")
-    Mono<Account> findAccountByIdForUpdate(UUID id);
     Flux<Account> findAccountsByMerchantId(UUID merchantId);
+    @Query("UPDATE accounts SET balance = balance - :amount WHERE id = :id AND balance >= :amount RETURNING *")
+    Mono<Account> debitAccountBalance(UUID id, BigDecimal amount);
+
+    @Query("SELECT a.id, a.currency, a.merchant_id, a.balance_buckets, " +
+            "a.balance + COALESCE((SELECT SUM(b.balance) FROM account_balance_buckets b WHERE b.account_id = a.id), 0) AS balance " +
+            "FROM accounts a WHERE a.id = :id")
+    Mono<Account> findAccountWithTotalBalanceById(UUID id);
+
+    @Query("WITH single_row AS (" +
+            "UPDATE accounts SET balance = balance + :amount WHERE id = :id AND balance_buckets <= 1 RETURNING id), " +
+            "striped AS (" +
+            "INSERT INTO account_balance_buckets (account_id, bucket, balance) " +
+            "SELECT id, :stripe % balance_buckets, :amount FROM accounts WHERE id = :id AND balance_buckets > 1 " +
+            "ON CONFLICT (account_id, bucket) DO UPDATE SET balance = account_balance_buckets.balance + EXCLUDED.balance " +
+            "RETURNING account_id) " +
+            "SELECT count(*) FROM (SELECT id FROM single_row UNION ALL SELECT account_id FROM striped) AS credited")
+    Mono<Long> creditAccountBalance(UUID id, BigDecimal amount, int stripe);
+
+    @Query("WITH swept AS (" +
+            "UPDATE account_balance_buckets b SET balance = b.balance - locked.balance " +
+            "FROM (SELECT bucket, balance FROM account_balance_buckets WHERE account_id = :id AND balance <> 0 FOR UPDATE) AS locked " +
+            "WHERE b.account_id = :id AND b.bucket = locked.bucket " +
+            "RETURNING locked.balance) " +
+            "UPDATE accounts SET balance = balance + (SELECT COALESCE(SUM(balance), 0) FROM swept) WHERE id = :id RETURNING *")
+    Mono<Account> sweepBalanceBuckets(UUID id);
 }
@@ -1,13 +1,19 @@
 package com.testpayments.transacitonservice.repository;
 
 import com.testpayments.transacitonservice.entity.Card;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
 import java.util.UUID;
 
 public interface CardRepository extends R2dbcRepository<Card, UUID> {
 
     Mono<Card> findCardByCardNumberAndCurrency(String cardNumber, String currency);
     Mono<Card> findCardById(UUID id);
+    @Modifying
+    @Query("UPDATE cards SET balance = balance + :amount WHERE id = :id")
+    Mono<Integer> creditCardBalance(UUID id, BigDecimal amount);
 }
@@ -0,0 +1,104 @@
+package com.testpayments.transacitonservice.repository;
+
+import com.testpayments.transacitonservice.entity.Card;
+import com.testpayments.transacitonservice.entity.Customer;
+import com.testpayments.transacitonservice.entity.Status;
+import com.testpayments.transacitonservice.entity.Transaction;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Runs a whole deposit as one statement: resolves the merchant account, upserts customer and card
+ * against the unique constraints from V3, debits an existing card and inserts the transaction.
+ * A new customer or card is stored without a debit, as it has no balance yet.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DepositRepository {
+
+    private static final String DEPOSIT_QUERY = """
+            WITH account AS (
+                SELECT id FROM accounts WHERE merchant_id = :merchantId AND currency = :currency LIMIT 1
+            ),
+            existing_customer AS (
+                SELECT id FROM customers WHERE first_name = :firstName AND last_name = :lastName AND country = :country
+            ),
+            inserted_customer AS (
+                INSERT INTO customers (first_name, last_name, country)
+                SELECT :firstName, :lastName, :country
+                WHERE EXISTS (SELECT 1 FROM account) AND NOT EXISTS (SELECT 1 FROM existing_customer)
+                ON CONFLICT ON CONSTRAINT unique_customer_identity DO NOTHING
+                RETURNING id
+            ),
+            existing_card AS (
+                SELECT id FROM cards WHERE card_number = :cardNumber AND currency = :currency
+            ),
+            inserted_card AS (
+                INSERT INTO cards (card_number, exp_date, cvv, currency, customer_id)
+                SELECT :cardNumber, :expDate, :cvv, :currency, customer.id
+                FROM (SELECT id FROM existing_customer UNION ALL SELECT id FROM inserted_customer) AS customer
+                WHERE EXISTS (SELECT 1 FROM account) AND NOT EXISTS (SELECT 1 FROM existing_card)
+                ON CONFLICT ON CONSTRAINT unique_card_number_currency DO NOTHING
+                RETURNING id
+            ),
+            debited_card AS (
+                UPDATE cards SET balance = balance - :amount
+                WHERE id = (SELECT id FROM existing_card)
+                  AND balance >= :amount
+                  AND EXISTS (SELECT 1 FROM account)
+                  AND EXISTS (SELECT 1 FROM existing_customer)
+                RETURNING id
+            ),
+            inserted_transaction AS (
+                INSERT INTO transactions (created_at, updated_at, currency, amount, notification_url, language, status, type, card_id, account_id)
+                SELECT :createdAt, :updatedAt, :currency, :amount, :notificationUrl, :language, :status, :type, debited_card.id, account.id
+                FROM debited_card, account
+                RETURNING id, status
+            )
+            SELECT (SELECT id FROM account) AS account_id,
+                   inserted_transaction.id AS transaction_id,
+                   inserted_transaction.status AS status
+            FROM (SELECT 1) AS deposit
+            LEFT JOIN inserted_transaction ON TRUE
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<DepositResult> deposit(UUID merchantId, Customer customer, Card card, Transaction transaction) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(DEPOSIT_QUERY)
+                .bind("merchantId", merchantId)
+                .bind("currency", transaction.getCurrency())
+                .bind("firstName", customer.getFirstName())
+                .bind("lastName", customer.getLastName())
+                .bind("country", customer.getCountry())
+                .bind("cardNumber", card.getCardNumber())
+                .bind("cvv", card.getCvv())
+                .bind("amount", transaction.getAmount())
+                .bind("createdAt", transaction.getCreatedAt())
+                .bind("updatedAt", transaction.getUpdatedAt())
+                .bind("notificationUrl", transaction.getNotificationUrl())
+                .bind("language", transaction.getLanguage())
+                .bind("status", transaction.getStatus().name())
+                .bind("type", transaction.getType().name());
+        spec = Objects.nonNull(card.getExpDate())
+                ? spec.bind("expDate", card.getExpDate())
+                : spec.bindNull("expDate", LocalDateTime.class);
+
+        return spec.map(this::mapDepositResult).one();
+    }
+
+    private DepositResult mapDepositResult(Readable row) {
+        String status = row.get("status", String.class);
+        return new DepositResult(
+                row.get("account_id", UUID.class),
+                row.get("transaction_id", UUID.class),
+                Objects.nonNull(status) ? Status.valueOf(status) : null);
+    }
+}
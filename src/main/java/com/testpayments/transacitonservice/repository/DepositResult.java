@@ -0,0 +1,16 @@
+package com.testpayments.transacitonservice.repository;
+
+import com.testpayments.transacitonservice.entity.Status;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+public class DepositResult {
+
+    private final UUID accountId;
+    private final UUID transactionId;
+    private final Status status;
+}
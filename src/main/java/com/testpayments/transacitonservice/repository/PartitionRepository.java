@@ -0,0 +1,88 @@
+package com.testpayments.transacitonservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Manages the monthly range partitions of the tables partitioned in V12. A partition of month M is
+ * named {@code <table>_y<yyyy>m<mm>} and holds rows with created_at in [M, M + 1). Archived
+ * partitions are detached from their table and moved into the {@code archive} schema.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PartitionRepository {
+
+    public static final String ARCHIVE_SCHEMA = "archive";
+
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("_y(\\d{4})m(\\d{2})$");
+
+    private static final String PARTITIONS_QUERY = """
+            SELECT child.relname AS partition
+            FROM pg_inherits
+            JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+            WHERE pg_inherits.inhparent = CAST(:table AS regclass)
+            """;
+
+    private static final String TRY_MAINTENANCE_LOCK_QUERY =
+            "SELECT pg_try_advisory_xact_lock(hashtext('partition_maintenance')) AS locked";
+
+    private static final String LOCK_TIMEOUT_STATEMENT = "SET LOCAL lock_timeout = %d";
+
+    private static final String CREATE_PARTITION_STATEMENT =
+            "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')";
+
+    private static final String DETACH_PARTITION_STATEMENT = "ALTER TABLE %s DETACH PARTITION %s";
+
+    private static final String ARCHIVE_PARTITION_STATEMENT = "ALTER TABLE %s SET SCHEMA " + ARCHIVE_SCHEMA;
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<YearMonth> findMonthlyPartitions(String table) {
+        return databaseClient.sql(PARTITIONS_QUERY)
+                .bind("table", table)
+                .map(row -> row.get("partition", String.class))
+                .all()
+                .map(partition -> MONTHLY_PARTITION.matcher(partition))
+                .filter(Matcher::find)
+                .map(matcher -> YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+    }
+
+    // Both take effect until the end of the current transaction, so they must run inside one.
+    public Mono<Boolean> tryMaintenanceLock() {
+        return databaseClient.sql(TRY_MAINTENANCE_LOCK_QUERY)
+                .map(row -> row.get("locked", Boolean.class))
+                .one();
+    }
+
+    public Mono<Void> setLockTimeout(Duration lockTimeout) {
+        return databaseClient.sql(String.format(LOCK_TIMEOUT_STATEMENT, lockTimeout.toMillis()))
+                .then();
+    }
+
+    public Mono<Void> createMonthlyPartition(String table, YearMonth month) {
+        return databaseClient.sql(String.format(CREATE_PARTITION_STATEMENT,
+                        partitionName(table, month), table, month.atDay(1), month.plusMonths(1).atDay(1)))
+                .then();
+    }
+
+    // Both statements must run in one transaction, otherwise a failed move leaves a detached
+    // partition in the public schema that no later run will pick up.
+    public Mono<Void> archiveMonthlyPartition(String table, YearMonth month) {
+        String partition = partitionName(table, month);
+        return databaseClient.sql(String.format(DETACH_PARTITION_STATEMENT, table, partition))
+                .then()
+                .then(databaseClient.sql(String.format(ARCHIVE_PARTITION_STATEMENT, partition)).then());
+    }
+
+    public static String partitionName(String table, YearMonth month) {
+        return String.format("%s_y%04dm%02d", table, month.getYear(), month.getMonthValue());
+    }
+}
@@ -0,0 +1,108 @@
+package com.testpayments.transacitonservice.repository;
+
+import com.testpayments.transacitonservice.dto.CustomerDataDto;
+import com.testpayments.transacitonservice.dto.TopUpCardDataDto;
+import com.testpayments.transacitonservice.dto.TransactionCursor;
+import com.testpayments.transacitonservice.dto.TransactionResponse;
+import com.testpayments.transacitonservice.entity.Type;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read model for the transaction lists: joins transactions with their card and customer and maps
+ * the rows straight into {@link TransactionResponse}, so a page costs one query instead of two
+ * lookups per transaction. Lists are ordered by (created_at, id) across all accounts of the merchant.
+ * Every query is bounded by a created_at range, so Postgres only scans the monthly partitions it covers.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionListingRepository {
+
+    private static final String LISTING_QUERY = """
+            SELECT t.id, t.amount, t.currency, t.created_at, t.updated_at, t.notification_url, t.language,
+                   c.card_number, cu.first_name, cu.last_name, cu.country
+            FROM transactions t
+            JOIN accounts a ON a.id = t.account_id
+            JOIN cards c ON c.id = t.card_id
+            JOIN customers cu ON cu.id = c.customer_id
+            WHERE a.merchant_id = :merchantId AND t.type = :type
+            """;
+
+    private static final String DATE_RANGE_CONDITION = """
+            AND t.created_at >= :startDate AND t.created_at <= :endDate
+            """;
+
+    private static final String DATE_RANGE_QUERY = LISTING_QUERY + DATE_RANGE_CONDITION + """
+            ORDER BY t.created_at, t.id
+            LIMIT :size OFFSET :offset
+            """;
+
+    private static final String FIRST_PAGE_QUERY = LISTING_QUERY + DATE_RANGE_CONDITION + """
+            ORDER BY t.created_at, t.id
+            LIMIT :size
+            """;
+
+    private static final String NEXT_PAGE_QUERY = LISTING_QUERY + DATE_RANGE_CONDITION + """
+            AND (t.created_at, t.id) > (:cursorCreatedAt, :cursorId)
+            ORDER BY t.created_at, t.id
+            LIMIT :size
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<TransactionResponse> findByDateRangeAndType(UUID merchantId, Type type, LocalDateTime startDate,
+                                                            LocalDateTime endDate, int size, long offset) {
+        return databaseClient.sql(DATE_RANGE_QUERY)
+                .bind("merchantId", merchantId)
+                .bind("type", type.name())
+                .bind("startDate", startDate)
+                .bind("endDate", endDate)
+                .bind("size", size)
+                .bind("offset", offset)
+                .map(this::mapTransactionResponse)
+                .all();
+    }
+
+    // Keyset pagination: the cursor row is found through the (created_at, id) ordering, so every
+    // page costs the same however deep the client pages.
+    public Flux<TransactionResponse> findPageByDateRangeAndType(UUID merchantId, Type type, LocalDateTime startDate,
+                                                                LocalDateTime endDate, TransactionCursor after, int size) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(after != null ? NEXT_PAGE_QUERY : FIRST_PAGE_QUERY)
+                .bind("merchantId", merchantId)
+                .bind("type", type.name())
+                .bind("startDate", startDate)
+                .bind("endDate", endDate)
+                .bind("size", size);
+        if (after != null) {
+            spec = spec.bind("cursorCreatedAt", after.getCreatedAt())
+                    .bind("cursorId", after.getTransactionId());
+        }
+        return spec.map(this::mapTransactionResponse).all();
+    }
+
+    private TransactionResponse mapTransactionResponse(Readable row) {
+        TopUpCardDataDto topUpCardDataDto = new TopUpCardDataDto();
+        topUpCardDataDto.setCardNumber(row.get("card_number", String.class));
+        return TransactionResponse.builder()
+                .paymentMethod("CARD")
+                .amount(row.get("amount", BigDecimal.class))
+                .currency(row.get("currency", String.class))
+                .transactionId(row.get("id", UUID.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .notificationUrl(row.get("notification_url", String.class))
+                .topUpCardDataDto(topUpCardDataDto)
+                .language(row.get("language", String.class))
+                .customerDataDto(new CustomerDataDto(row.get("first_name", String.class), row.get("last_name", String.class),
+                        row.get("country", String.class)))
+                .message("OK")
+                .build();
+    }
+}
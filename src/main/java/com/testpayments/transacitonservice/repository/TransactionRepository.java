@@ -14,10 +14,17 @@ import java.util.UUID;
 
 public interface TransactionRepository extends R2dbcRepository<Transaction, UUID> {
 
-    @Query("select * from transactions where created_at >= :startDate and created_at <= :endDate " +
-            "and account_id = :accountId and type = :transactionType limit :size offset :offset")
-    Flux<Transaction> findByDateRangeAndType(LocalDateTime startDate, LocalDateTime endDate, UUID accountId, Type transactionType, int size, long offset);
     Mono<Transaction> findByIdAndType(UUID transactionId, Type transactionType);
-    Flux<Transaction> findAllByAccountIdAndType(UUID accountId, Type transactionType);
-    Flux<Transaction> findAllByStatus(Status status);
+    Mono<Transaction> findByIdAndCreatedAt(UUID transactionId, LocalDateTime createdAt);
+
+    @Query("UPDATE transactions SET claimed_by = :claimedBy, claimed_until = LOCALTIMESTAMP + make_interval(secs => :leaseSeconds) " +
+            "WHERE (id, created_at) IN (SELECT id, created_at FROM transactions WHERE status = :status " +
+            "AND (claimed_until IS NULL OR claimed_until < LOCALTIMESTAMP) " +
+            "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING *")
+    Flux<Transaction> claimByStatus(Status status, String claimedBy, long leaseSeconds, int limit);
+
+    @Query("UPDATE transactions t SET status = v.status, updated_at = LOCALTIMESTAMP, claimed_by = NULL, claimed_until = NULL " +
+            "FROM unnest(:ids, :createdAts, :statuses) AS v(id, created_at, status) " +
+            "WHERE t.id = v.id AND t.created_at = v.created_at AND t.status = 'IN_PROCESS' AND t.claimed_by = :claimedBy RETURNING t.id")
+    Flux<UUID> completeClaimed(UUID[] ids, LocalDateTime[] createdAts, String[] statuses, String claimedBy);
 }
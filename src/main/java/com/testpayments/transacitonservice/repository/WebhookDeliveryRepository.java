@@ -0,0 +1,36 @@
+package com.testpayments.transacitonservice.repository;
+
+import com.testpayments.transacitonservice.entity.WebhookDelivery;
+import com.testpayments.transacitonservice.entity.WebhookDeliveryStatus;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface WebhookDeliveryRepository extends R2dbcRepository<WebhookDelivery, UUID> {
+
+    @Modifying
+    @Query("INSERT INTO webhook_deliveries (transaction_id, transaction_created_at, merchant_id, notification_url, delivery_status, attempt_count, next_attempt_at, created_at, updated_at) " +
+            "SELECT t.id, t.created_at, a.merchant_id, t.notification_url, 'PENDING', 0, LOCALTIMESTAMP, LOCALTIMESTAMP, LOCALTIMESTAMP " +
+            "FROM transactions t LEFT JOIN accounts a ON a.id = t.account_id WHERE t.id = ANY(:transactionIds) " +
+            "ON CONFLICT ON CONSTRAINT unique_webhook_delivery_transaction DO NOTHING")
+    Mono<Integer> enqueue(UUID[] transactionIds);
+
+    @Query("UPDATE webhook_deliveries SET claimed_by = :claimedBy, claimed_until = LOCALTIMESTAMP + make_interval(secs => :leaseSeconds), " +
+            "next_attempt_at = LOCALTIMESTAMP + make_interval(secs => :leaseSeconds) " +
+            "WHERE id IN (SELECT id FROM webhook_deliveries WHERE delivery_status = 'PENDING' " +
+            "AND next_attempt_at <= LOCALTIMESTAMP ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING *")
+    Flux<WebhookDelivery> claimDue(String claimedBy, long leaseSeconds, int limit);
+
+    @Query("UPDATE webhook_deliveries SET delivery_status = :deliveryStatus, attempt_count = :attemptCount, " +
+            "next_attempt_at = :nextAttemptAt, updated_at = LOCALTIMESTAMP, claimed_by = NULL, claimed_until = NULL " +
+            "WHERE id = :id AND claimed_by = :claimedBy AND delivery_status = 'PENDING' RETURNING *")
+    Mono<WebhookDelivery> updateClaimed(UUID id, WebhookDeliveryStatus deliveryStatus, int attemptCount,
+                                        LocalDateTime nextAttemptAt, String claimedBy);
+}
@@ -1,6 +1,5 @@
 package com.testpayments.transacitonservice.repository;
 
-import com.testpayments.transacitonservice.entity.Status;
 import com.testpayments.transacitonservice.entity.Webhook;
 import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
@@ -14,10 +13,8 @@ import java.util.UUID;
 public interface WebhookRepository extends R2dbcRepository<Webhook, UUID> {
 
     @Modifying
-    @Query("INSERT INTO webhooks (status, request_body, notification_url, attempt_amount, transaction_id) " +
-            "VALUES (:status, CAST(:requestBody AS JSONB), :notificationUrl, :attemptAmount, :transactionId)")
-    Mono<Webhook> saveWebhook(Status status, String requestBody, String notificationUrl, Integer attemptAmount, UUID transactionId);
-
-    @Query("SELECT MAX(attempt_amount) FROM webhooks WHERE transaction_id = :transactionId")
-    Mono<Integer> findMaxAttemptCountByTransactionId(UUID transactionId);
+    @Query("INSERT INTO webhooks (response_status, status, response_body, request_body, notification_url, attempt_amount, transaction_id) " +
+            "SELECT * FROM unnest(:responseStatuses, :statuses, :responseBodies, :requestBodies, :notificationUrls, :attemptAmounts, :transactionIds)")
+    Mono<Integer> insertAll(String[] responseStatuses, String[] statuses, String[] responseBodies, String[] requestBodies,
+                            String[] notificationUrls, Integer[] attemptAmounts, UUID[] transactionIds);
 }
@@ -1,12 +1,14 @@
 package com.testpayments.transacitonservice.rest;
 
 import com.testpayments.transacitonservice.dto.PaymentResponse;
+import com.testpayments.transacitonservice.dto.TransactionPage;
 import com.testpayments.transacitonservice.dto.TransactionResponse;
 import com.testpayments.transacitonservice.dto.WithdrawalRequest;
 import com.testpayments.transacitonservice.service.TransactionService;
 import com.testpayments.transacitonservice.util.ApplicationConstants;
 import com.testpayments.transacitonservice.util.PaymentOperationConstant;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -15,9 +17,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ServerWebExchange;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -34,13 +36,15 @@ public class PayOutControllerV1 {
     }
 
     @GetMapping("/payout/list")
-    public Flux<TransactionResponse> getPayOutTransactions(ServerWebExchange exchange,
-                                                           @RequestParam(value = "start_date", required = false) Long startDate,
-                                                           @RequestParam(value = "end_date", required = false) Long endDate,
-                                                           @RequestParam(defaultValue = "0") int page,
-                                                           @RequestParam(defaultValue = "5") int size) {
+    public Mono<ResponseEntity<List<TransactionResponse>>> getPayOutTransactions(ServerWebExchange exchange,
+                                                                                 @RequestParam(value = "start_date", required = false) Long startDate,
+                                                                                 @RequestParam(value = "end_date", required = false) Long endDate,
+                                                                                 @RequestParam(required = false) String cursor,
+                                                                                 @RequestParam(defaultValue = "0") int page,
+                                                                                 @RequestParam(defaultValue = "5") int size) {
         UUID merchantId = exchange.getAttribute(ApplicationConstants.MERCHANT_ID_KEY);
-        return transactionService.getPayOutTransactions(startDate, endDate, merchantId, page, size);
+        return transactionService.getPayOutTransactions(startDate, endDate, cursor, merchantId, page, size)
+                .map(this::toResponse);
     }
 
     @GetMapping("/payout/{payoutId}/details")
@@ -49,4 +53,13 @@ public class PayOutControllerV1 {
         return transactionService.getPayOutTransactionById(payoutId, merchantId);
     }
 
+    private ResponseEntity<List<TransactionResponse>> toResponse(TransactionPage transactionPage) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(ApplicationConstants.WINDOW_START_HEADER, String.valueOf(transactionPage.getWindowStart()))
+                .header(ApplicationConstants.WINDOW_END_HEADER, String.valueOf(transactionPage.getWindowEnd()));
+        if (transactionPage.getNextCursor() != null) {
+            response.header(ApplicationConstants.NEXT_CURSOR_HEADER, transactionPage.getNextCursor());
+        }
+        return response.body(transactionPage.getTransactions());
+    }
 }
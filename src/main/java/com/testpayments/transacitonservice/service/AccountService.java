@@ -5,14 +5,15 @@ import com.testpayments.transacitonservice.entity.Account;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
 import java.util.UUID;
 
 public interface AccountService {
 
     Mono<Account> findAccountByMerchantIdAndCurrency(UUID merchantId, String currency);
+    // The balance includes the not yet swept balance buckets, so the result must never be saved back.
     Mono<Account> findById(UUID id);
-    Mono<Account> findAccountByIdForUpdate(UUID id);
-    Mono<Account> updateAccount(Account account);
     Flux<Account> findAccountsByMerchantId(UUID merchantId);
     Mono<Account> updateAccountBalance(Account account, WithdrawalRequest withdrawalRequest);
+    Mono<Void> creditAccount(UUID accountId, BigDecimal amount, UUID stripeKey);
 }
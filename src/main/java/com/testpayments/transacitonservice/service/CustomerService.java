@@ -9,5 +9,4 @@ public interface CustomerService {
 
     Mono<Customer> findCustomerByFirstNameAndLastNameAndCountry(String firstName, String lastName, String county);
     Mono<Customer> findCustomerById(UUID id);
-    Mono<Customer> createCustomer(Customer customer);
 }
@@ -2,6 +2,7 @@ package com.testpayments.transacitonservice.service;
 
 import com.testpayments.transacitonservice.dto.TopUpRequest;
 import com.testpayments.transacitonservice.dto.PaymentResponse;
+import com.testpayments.transacitonservice.dto.TransactionPage;
 import com.testpayments.transacitonservice.dto.TransactionResponse;
 import com.testpayments.transacitonservice.dto.WithdrawalRequest;
 import com.testpayments.transacitonservice.entity.Status;
@@ -9,6 +10,9 @@ import com.testpayments.transacitonservice.entity.Transaction;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 public interface TransactionService {
@@ -16,11 +20,12 @@ public interface TransactionService {
     Mono<PaymentResponse> topUp(TopUpRequest topUpRequest, UUID id);
     Mono<PaymentResponse> payOut(WithdrawalRequest withdrawalRequest, UUID id);
     Mono<Transaction> createTransaction(Transaction transaction);
-    Flux<TransactionResponse> getTopUpTransactions(Long startDate, Long endDate, UUID merchantId, int page, int size);
-    Flux<TransactionResponse> getPayOutTransactions(Long startDate, Long endDate, UUID merchantId, int page, int size);
+    Mono<TransactionPage> getTopUpTransactions(Long startDate, Long endDate, String cursor, UUID merchantId, int page, int size);
+    Mono<TransactionPage> getPayOutTransactions(Long startDate, Long endDate, String cursor, UUID merchantId, int page, int size);
     Mono<TransactionResponse> getTopUpTransactionById(UUID transactionId, UUID merchantId);
     Mono<TransactionResponse> getPayOutTransactionById(UUID transactionId, UUID merchantId);
-    Flux<Transaction> findAllTransactionsByStatus(Status status);
-    Mono<Transaction> updateTransaction(Transaction transaction);
+    Mono<Transaction> findTransactionById(UUID transactionId, LocalDateTime createdAt);
+    Flux<Transaction> claimTransactions(Status status, String claimedBy, Duration lease, int limit);
+    Mono<List<Transaction>> completeClaimedTransactions(List<Transaction> transactions, String claimedBy);
     Transaction assignRandomStatus(Transaction transaction);
 }
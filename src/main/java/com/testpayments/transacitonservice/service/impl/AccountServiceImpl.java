@@ -9,12 +9,11 @@ import com.testpayments.transacitonservice.service.AccountService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.util.Objects;
 import java.util.UUID;
 
 @Slf4j
@@ -22,7 +21,7 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class AccountServiceImpl implements AccountService {
 
-    private static final Integer ZERO_BALANCE = 0;
+    private static final int SINGLE_BUCKET = 1;
 
     private final AccountRepository accountRepository;
 
@@ -34,20 +33,7 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public Mono<Account> findById(UUID id) {
-        return accountRepository.findById(id);
-    }
-
-    @Override
-    public Mono<Account> findAccountByIdForUpdate(UUID id) {
-        return accountRepository.findAccountByIdForUpdate(id)
-                .doOnSuccess(account -> log.info("Row was locked"));
-    }
-
-    @Override
-    public Mono<Account> updateAccount(Account account) {
-        return accountRepository.save(account)
-                .doOnSuccess(updatedAccount -> log.info("Account updated for ID: {}", updatedAccount.getId()))
-                .doOnError(error -> log.error("Error updating account", error));
+        return accountRepository.findAccountWithTotalBalanceById(id);
     }
 
     @Override
@@ -58,17 +44,28 @@ public class AccountServiceImpl implements AccountService {
     }
 
     @Override
-    @Transactional(isolation = Isolation.REPEATABLE_READ)
     public Mono<Account> updateAccountBalance(Account account, WithdrawalRequest withdrawalRequest) {
-        BigDecimal currentBalance = account.getBalance();
         BigDecimal payOutAmount = new BigDecimal(withdrawalRequest.getAmount());
-        if (currentBalance.compareTo(payOutAmount) >= ZERO_BALANCE) {
-            account.setBalance(currentBalance.subtract(payOutAmount));
-            return updateAccount(account)
-                    .doOnSuccess(updatedCard -> log.info("Account balance was reduced by {}", payOutAmount));
-        }
-        else {
-            return Mono.error(new InsufficientFundsException("Not enough money on balance"));
-        }
+        return accountRepository.debitAccountBalance(account.getId(), payOutAmount)
+                .switchIfEmpty(Mono.defer(() -> isStriped(account)
+                        ? accountRepository.sweepBalanceBuckets(account.getId())
+                                .doOnSuccess(sweptAccount -> log.info("Balance buckets were swept for account with id {}", account.getId()))
+                                .then(accountRepository.debitAccountBalance(account.getId(), payOutAmount))
+                        : Mono.empty()))
+                .switchIfEmpty(Mono.error(new InsufficientFundsException("Not enough money on balance")))
+                .doOnSuccess(updatedAccount -> log.info("Account balance was reduced by {}", payOutAmount));
+    }
+
+    @Override
+    public Mono<Void> creditAccount(UUID accountId, BigDecimal amount, UUID stripeKey) {
+        return accountRepository.creditAccountBalance(accountId, amount, stripeKey.hashCode() & Integer.MAX_VALUE)
+                .filter(creditedRows -> creditedRows > 0)
+                .switchIfEmpty(Mono.error(new CustomNotFoundException("Account was not found with ID: " + accountId)))
+                .doOnSuccess(creditedRows -> log.info("Account balance was increased by {} for account with id {}", amount, accountId))
+                .then();
+    }
+
+    private boolean isStriped(Account account) {
+        return Objects.nonNull(account.getBalanceBuckets()) && account.getBalanceBuckets() > SINGLE_BUCKET;
     }
 }
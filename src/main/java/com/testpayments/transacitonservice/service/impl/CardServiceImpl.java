@@ -1,16 +1,12 @@
 package com.testpayments.transacitonservice.service.impl;
 
-import com.testpayments.transacitonservice.dto.TopUpRequest;
 import com.testpayments.transacitonservice.entity.Card;
 import com.testpayments.transacitonservice.exception.CustomNotFoundException;
-import com.testpayments.transacitonservice.exception.InsufficientFundsException;
 import com.testpayments.transacitonservice.repository.CardRepository;
 import com.testpayments.transacitonservice.service.CardService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
@@ -21,8 +17,6 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class CardServiceImpl implements CardService {
 
-    private static final Integer ZERO_BALANCE = 0;
-
     private final CardRepository cardRepository;
 
     @Override
@@ -43,28 +37,11 @@ public class CardServiceImpl implements CardService {
     }
 
     @Override
-    public Mono<Card> createCard(Card card) {
-        return cardRepository.save(card)
-                .doOnSuccess(u -> log.info("Card was created with id {}", card.getId()))
-                .doOnError(error -> log.error("Error when trying to save card", error));
-    }
-
-    @Override
-    public Mono<Card> updateCard(Card card) {
-        return cardRepository.save(card);
-    }
-
-    @Override
-    @Transactional(isolation = Isolation.REPEATABLE_READ)
-    public Mono<Card> updateCardBalance(Card card, TopUpRequest topUpRequest) {
-        BigDecimal currentBalance = card.getBalance();
-        BigDecimal topUpAmount = new BigDecimal(topUpRequest.getAmount());
-        if (currentBalance.compareTo(topUpAmount) >= ZERO_BALANCE) {
-            card.setBalance(currentBalance.subtract(topUpAmount));
-            return updateCard(card)
-                    .doOnSuccess(updatedCard -> log.info("Card balance was reduced by {}", topUpAmount));
-        } else {
-            return Mono.error(new InsufficientFundsException("Not enough money on balance"));
-        }
+    public Mono<Void> creditCard(UUID cardId, BigDecimal amount) {
+        return cardRepository.creditCardBalance(cardId, amount)
+                .filter(updatedRows -> updatedRows > 0)
+                .switchIfEmpty(Mono.error(new CustomNotFoundException("Card not found with ID: " + cardId)))
+                .doOnSuccess(updatedRows -> log.info("Card balance was increased by {} for card with id {}", amount, cardId))
+                .then();
     }
 }
@@ -27,10 +27,4 @@ public class CustomerServiceImpl implements CustomerService {
         return customerRepository.findCustomerById(id);
     }
 
-    @Override
-    public Mono<Customer> createCustomer(Customer customer) {
-        return customerRepository.save(customer)
-                .doOnSuccess(u -> log.info("Customer was created with id {}", customer.getId()))
-                .doOnError(error -> log.error("Error when trying to save customer", error));
-    }
 }
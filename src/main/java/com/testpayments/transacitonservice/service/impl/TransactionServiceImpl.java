@@ -1,10 +1,13 @@
 package com.testpayments.transacitonservice.service.impl;
 
+import com.testpayments.transacitonservice.config.TransactionListProperties;
 import com.testpayments.transacitonservice.dto.AbstractPaymentRequest;
 import com.testpayments.transacitonservice.dto.TopUpCardDataDto;
 import com.testpayments.transacitonservice.dto.CustomerDataDto;
 import com.testpayments.transacitonservice.dto.TopUpRequest;
 import com.testpayments.transacitonservice.dto.PaymentResponse;
+import com.testpayments.transacitonservice.dto.TransactionCursor;
+import com.testpayments.transacitonservice.dto.TransactionPage;
 import com.testpayments.transacitonservice.dto.TransactionResponse;
 import com.testpayments.transacitonservice.dto.WithdrawalRequest;
 import com.testpayments.transacitonservice.entity.Account;
@@ -15,6 +18,9 @@ import com.testpayments.transacitonservice.entity.Transaction;
 import com.testpayments.transacitonservice.entity.Type;
 import com.testpayments.transacitonservice.exception.CustomNotFoundException;
 import com.testpayments.transacitonservice.exception.InsufficientFundsException;
+import com.testpayments.transacitonservice.exception.InvalidPageRequestException;
+import com.testpayments.transacitonservice.repository.DepositRepository;
+import com.testpayments.transacitonservice.repository.TransactionListingRepository;
 import com.testpayments.transacitonservice.repository.TransactionRepository;
 import com.testpayments.transacitonservice.service.AccountService;
 import com.testpayments.transacitonservice.service.CardService;
@@ -28,10 +34,14 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -39,6 +49,9 @@ import java.util.concurrent.ThreadLocalRandom;
 public class TransactionServiceImpl implements TransactionService {
 
     private final TransactionRepository transactionRepository;
+    private final TransactionListingRepository transactionListingRepository;
+    private final TransactionListProperties transactionListProperties;
+    private final DepositRepository depositRepository;
     private final AccountService accountService;
     private final CustomerService customerService;
     private final CardService cardService;
@@ -46,30 +59,25 @@ public class TransactionServiceImpl implements TransactionService {
 
     @Override
     public Mono<PaymentResponse> topUp(TopUpRequest topUpRequest, UUID merchantId) {
-        return accountService.findAccountByMerchantIdAndCurrency(merchantId, topUpRequest.getCurrency())
-                .switchIfEmpty(Mono.error(new CustomNotFoundException("Merchant with this id and currency does not exist")))
-                .flatMap(account -> {
-                    CustomerDataDto customerDR = topUpRequest.getCustomerDataDto();
-                    return customerService.findCustomerByFirstNameAndLastNameAndCountry(customerDR.getFirstName(), customerDR.getLastName(), customerDR.getCountry())
-                            .flatMap(customer -> {
-                                TopUpCardDataDto cardDR = topUpRequest.getTopUpCardDataDto();
-                                return cardService.findCardByCardNumberAndCurrency(cardDR.getCardNumber(), topUpRequest.getCurrency())
-                                        .flatMap(card -> reduceCardBalanceAndCreateTransaction(card, topUpRequest, account.getId()))
-                                        .switchIfEmpty(Mono.defer(() -> createCardAndMapIfAbsent(topUpRequest, customer.getId())
-                                                .flatMap(card -> Mono.error(new InsufficientFundsException("Not enough money on balance")))));
-                            })
-                            .switchIfEmpty(Mono.defer(() -> {
-                                Customer newCustomer = mapCustomerRequest(topUpRequest.getCustomerDataDto());
-                                return customerService.createCustomer(newCustomer)
-                                        .flatMap(customer -> createCardAndMapIfAbsent(topUpRequest, customer.getId())
-                                                .flatMap(card -> Mono.error(new InsufficientFundsException("Not enough money on balance"))));
-                            }));
-                })
-                .map(transaction -> PaymentResponse.builder()
-                        .transactionId(transaction.getId())
-                        .status(transaction.getStatus())
-                        .message("OK")
-                        .build());
+        Customer customer = mapCustomerRequest(topUpRequest.getCustomerDataDto());
+        Card card = mapCardRequest(topUpRequest.getTopUpCardDataDto());
+        Transaction transaction = mapTransaction(topUpRequest, null, null);
+        transaction.setType(Type.TOP_UP);
+
+        return depositRepository.deposit(merchantId, customer, card, transaction)
+                .flatMap(depositResult -> {
+                    if (Objects.isNull(depositResult.getAccountId())) {
+                        return Mono.error(new CustomNotFoundException("Merchant with this id and currency does not exist"));
+                    }
+                    if (Objects.isNull(depositResult.getTransactionId())) {
+                        return Mono.error(new InsufficientFundsException("Not enough money on balance"));
+                    }
+                    return Mono.just(PaymentResponse.builder()
+                            .transactionId(depositResult.getTransactionId())
+                            .status(depositResult.getStatus())
+                            .message("OK")
+                            .build());
+                });
     }
 
     @Override
@@ -99,39 +107,13 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
-    public Flux<TransactionResponse> getTopUpTransactions(Long firstDate, Long lastDate, UUID merchantId, int page, int size) {
-        long offset = (long) page * size;
-        return accountService.findAccountsByMerchantId(merchantId)
-                .flatMap(account -> {
-                    if (Objects.nonNull(firstDate) && Objects.nonNull(lastDate)) {
-                        LocalDateTime startDate = DateConverter.convertUnixTimestampToLocalDateTime(firstDate);
-                        LocalDateTime endDate = DateConverter.convertUnixTimestampToLocalDateTime(lastDate);
-                        return transactionRepository.findByDateRangeAndType(startDate, endDate, account.getId(), Type.TOP_UP, size, offset)
-                                .flatMap(this::findAndMapByCardIdAndCustomerId);
-                    } else {
-                        return transactionRepository.findAllByAccountIdAndType(account.getId(), Type.TOP_UP)
-                                .flatMap(this::findAndMapByCardIdAndCustomerId);
-                    }
-                })
-                .switchIfEmpty(Mono.error(new CustomNotFoundException("No transactions were found")));
+    public Mono<TransactionPage> getTopUpTransactions(Long firstDate, Long lastDate, String cursor, UUID merchantId, int page, int size) {
+        return getTransactions(firstDate, lastDate, cursor, merchantId, Type.TOP_UP, page, size);
     }
 
     @Override
-    public Flux<TransactionResponse> getPayOutTransactions(Long firstDate, Long lastDate, UUID merchantId, int page, int size) {
-        long offset = (long) page * size;
-        return accountService.findAccountsByMerchantId(merchantId)
-                .flatMap(account -> {
-                    if (Objects.nonNull(firstDate) && Objects.nonNull(lastDate)) {
-                        LocalDateTime startDate = DateConverter.convertUnixTimestampToLocalDateTime(firstDate);
-                        LocalDateTime endDate = DateConverter.convertUnixTimestampToLocalDateTime(lastDate);
-                        return transactionRepository.findByDateRangeAndType(startDate, endDate, account.getId(), Type.PAY_OUT, size, offset)
-                                .flatMap(this::findAndMapByCardIdAndCustomerId);
-                    } else {
-                        return transactionRepository.findAllByAccountIdAndType(account.getId(), Type.PAY_OUT)
-                                .flatMap(this::findAndMapByCardIdAndCustomerId);
-                    }
-                })
-                .switchIfEmpty(Mono.error(new CustomNotFoundException("No transactions were found")));
+    public Mono<TransactionPage> getPayOutTransactions(Long firstDate, Long lastDate, String cursor, UUID merchantId, int page, int size) {
+        return getTransactions(firstDate, lastDate, cursor, merchantId, Type.PAY_OUT, page, size);
     }
 
     @Override
@@ -157,13 +139,34 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
-    public Flux<Transaction> findAllTransactionsByStatus(Status status) {
-        return transactionRepository.findAllByStatus(status);
+    public Mono<Transaction> findTransactionById(UUID transactionId, LocalDateTime createdAt) {
+        return transactionRepository.findByIdAndCreatedAt(transactionId, createdAt)
+                .switchIfEmpty(Mono.error(new CustomNotFoundException("Transaction was not found with ID: " + transactionId)));
     }
 
     @Override
-    public Mono<Transaction> updateTransaction(Transaction transaction) {
-        return transactionRepository.save(transaction);
+    public Flux<Transaction> claimTransactions(Status status, String claimedBy, Duration lease, int limit) {
+        return transactionRepository.claimByStatus(status, claimedBy, lease.toSeconds(), limit);
+    }
+
+    @Override
+    public Mono<List<Transaction>> completeClaimedTransactions(List<Transaction> transactions, String claimedBy) {
+        if (transactions.isEmpty()) {
+            return Mono.just(transactions);
+        }
+        UUID[] ids = transactions.stream().map(Transaction::getId).toArray(UUID[]::new);
+        LocalDateTime[] createdAts = transactions.stream().map(Transaction::getCreatedAt).toArray(LocalDateTime[]::new);
+        String[] statuses = transactions.stream().map(transaction -> transaction.getStatus().name()).toArray(String[]::new);
+        return transactionRepository.completeClaimed(ids, createdAts, statuses, claimedBy)
+                .collect(Collectors.toSet())
+                .map(completedIds -> transactions.stream()
+                        .filter(transaction -> completedIds.contains(transaction.getId()))
+                        .toList())
+                .doOnNext(completed -> {
+                    if (completed.size() < transactions.size()) {
+                        log.warn("Claim was lost for {} of {} transactions", transactions.size() - completed.size(), transactions.size());
+                    }
+                });
     }
 
     //todo не написал тест для этого метода. Из-за ThreadLocalRandom. Перенес его из WebhookJob, чтоб контролировать поведение
@@ -178,29 +181,31 @@ public class TransactionServiceImpl implements TransactionService {
         return transaction;
     }
 
-    private Mono<Card> createCardAndMapIfAbsent(TopUpRequest topUpRequest, UUID customerId) {
-        TopUpCardDataDto topUpCardDataDto = topUpRequest.getTopUpCardDataDto();
-        String cardNumber = topUpCardDataDto.getCardNumber();
-        String currency = topUpRequest.getCurrency();
-        return cardService.findCardByCardNumberAndCurrency(cardNumber, currency)
-                .switchIfEmpty(Mono.defer(() ->{
-                    Card newCard = mapCardRequest(topUpCardDataDto);
-                    newCard.setCurrency(currency);
-                    newCard.setCustomerId(customerId);
-                    return cardService.createCard(newCard);
-                }));
-    }
-
-
-    private Mono<Transaction> reduceCardBalanceAndCreateTransaction(Card card, TopUpRequest topUpRequest, UUID accountId) {
-        return cardService.updateCardBalance(card, topUpRequest)
-                .flatMap(updatedCard -> createTransactionAfterBalanceUpdate(topUpRequest, card.getId(), accountId));
-    }
-
-    private Mono<Transaction> createTransactionAfterBalanceUpdate(TopUpRequest topUpRequest, UUID cardId, UUID accountId) {
-        Transaction transaction = mapTransaction(topUpRequest, cardId, accountId);
-        transaction.setType(Type.TOP_UP);
-        return createTransaction(transaction);
+    // One row more than the page size is read to find out whether a next page exists. Without a date
+    // range the list covers the default window, so a merchant's whole history is never read at once;
+    // the window that was applied is returned with the page so the client can see the bound.
+    private Mono<TransactionPage> getTransactions(Long firstDate, Long lastDate, String cursor, UUID merchantId, Type type, int page, int size) {
+        int maxPageSize = transactionListProperties.getMaxPageSize();
+        if (size < 1 || size > maxPageSize) {
+            return Mono.error(new InvalidPageRequestException("Page size must be between 1 and " + maxPageSize));
+        }
+        if (page < 0) {
+            return Mono.error(new InvalidPageRequestException("Page must not be negative"));
+        }
+        long windowEnd = Objects.nonNull(lastDate) ? lastDate : Instant.now().getEpochSecond();
+        long windowStart = Objects.nonNull(firstDate) ? firstDate : windowEnd - transactionListProperties.getDefaultWindow().toSeconds();
+        LocalDateTime startDate = DateConverter.convertUnixTimestampToLocalDateTime(windowStart);
+        LocalDateTime endDate = DateConverter.convertUnixTimestampToLocalDateTime(windowEnd);
+        Flux<TransactionResponse> transactions;
+        if (Objects.isNull(cursor) && page > 0) {
+            // page numbers are still accepted; the returned cursor lets the client continue with keyset paging
+            transactions = transactionListingRepository.findByDateRangeAndType(merchantId, type, startDate, endDate, size + 1, (long) page * size);
+        } else {
+            transactions = Flux.defer(() -> transactionListingRepository.findPageByDateRangeAndType(merchantId, type, startDate, endDate,
+                    Objects.nonNull(cursor) ? TransactionCursor.decode(cursor) : null, size + 1));
+        }
+        return transactions.collectList()
+                .map(rows -> TransactionPage.of(rows, size, windowStart, windowEnd));
     }
 
     private Mono<Transaction> reduceAccountBalanceAndCreateTransaction(Account account, WithdrawalRequest withdrawalRequest, UUID cardId) {
@@ -274,7 +279,9 @@ public class TransactionServiceImpl implements TransactionService {
         return Card.builder()
                 .cardNumber(topUpCardDataDto.getCardNumber())
                 .cvv(topUpCardDataDto.getSvv())
-                .expDate(DateConverter.convertStringToLocalDateTime(topUpCardDataDto.getExpDate()))
+                .expDate(Objects.nonNull(topUpCardDataDto.getExpDate())
+                        ? DateConverter.convertStringToLocalDateTime(topUpCardDataDto.getExpDate())
+                        : null)
                 .build();
 
     }
@@ -0,0 +1,92 @@
+package com.testpayments.transacitonservice.service.maintenance;
+
+import com.testpayments.transacitonservice.config.PartitionMaintenanceProperties;
+import com.testpayments.transacitonservice.repository.PartitionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.YearMonth;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the monthly partitions of {@code transactions} and {@code webhooks} ahead of the clock:
+ * creates the partitions for the current and the next {@code partition.maintenance.months-ahead}
+ * months, so new rows never land in the default partition, and archives partitions older than the
+ * table's retention. A retention of zero months keeps every partition attached.
+ * <p>
+ * Every step runs in its own short transaction that holds the maintenance advisory lock, so replicas
+ * whose cron fires together do not race on the same DDL, and under {@code lock-timeout}, so a step
+ * queued behind a long reader of the parent gives up instead of blocking deposits and listings.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PartitionMaintenanceJob {
+
+    private static final String TRANSACTIONS = "transactions";
+    private static final String WEBHOOKS = "webhooks";
+
+    private final PartitionRepository partitionRepository;
+    private final PartitionMaintenanceProperties partitionMaintenanceProperties;
+    private final TransactionalOperator transactionalOperator;
+
+    @Scheduled(cron = "${partition.maintenance.cron}")
+    public Mono<Void> maintainPartitions() {
+        YearMonth currentMonth = YearMonth.now();
+        return maintain(TRANSACTIONS, currentMonth, partitionMaintenanceProperties.getTransactionsRetentionMonths())
+                .then(maintain(WEBHOOKS, currentMonth, partitionMaintenanceProperties.getWebhooksRetentionMonths()));
+    }
+
+    private Mono<Void> maintain(String table, YearMonth currentMonth, int retentionMonths) {
+        Mono<Void> created = createPartitions(table, currentMonth);
+        if (retentionMonths <= 0) {
+            return created;
+        }
+        return created.then(archivePartitions(table, currentMonth.minusMonths(retentionMonths)));
+    }
+
+    private Mono<Void> createPartitions(String table, YearMonth currentMonth) {
+        return Flux.range(0, partitionMaintenanceProperties.getMonthsAhead() + 1)
+                .map(currentMonth::plusMonths)
+                .concatMap(month -> underMaintenanceLock(() -> partitionRepository.createMonthlyPartition(table, month))
+                        .onErrorResume(error -> {
+                            log.error("Partition {} of {} was not created", month, table, error);
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    private Mono<Void> archivePartitions(String table, YearMonth oldestRetainedMonth) {
+        return partitionRepository.findMonthlyPartitions(table)
+                .filter(month -> month.isBefore(oldestRetainedMonth))
+                .sort()
+                .concatMap(month -> underMaintenanceLock(() -> archiveIfAttached(table, month))
+                        .onErrorResume(error -> {
+                            log.error("Partition {} of {} was not archived", month, table, error);
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    // Another node may have archived the partition since it was listed.
+    private Mono<Void> archiveIfAttached(String table, YearMonth month) {
+        return partitionRepository.findMonthlyPartitions(table)
+                .any(month::equals)
+                .filter(Boolean::booleanValue)
+                .flatMap(attached -> partitionRepository.archiveMonthlyPartition(table, month)
+                        .doOnSuccess(ignored -> log.info("Partition {} of {} was archived", month, table)));
+    }
+
+    private Mono<Void> underMaintenanceLock(Supplier<Mono<Void>> step) {
+        return transactionalOperator.transactional(partitionRepository.tryMaintenanceLock()
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.fromRunnable(() -> log.info("Partition maintenance step was skipped, another node holds the lock")))
+                .flatMap(locked -> partitionRepository.setLockTimeout(partitionMaintenanceProperties.getLockTimeout())
+                        .then(Mono.defer(step))));
+    }
+}
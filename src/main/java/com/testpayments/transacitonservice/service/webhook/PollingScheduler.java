@@ -0,0 +1,101 @@
+package com.testpayments.transacitonservice.service.webhook;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs passes one after another: the next pass is scheduled only once the previous one
+ * has finished, immediately while a full batch was processed and with a growing delay
+ * while there is nothing to do.
+ */
+@Slf4j
+public abstract class PollingScheduler implements SmartLifecycle {
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean waiting = new AtomicBoolean();
+    private volatile Disposable nextPass;
+    private Duration idleDelay = Duration.ZERO;
+
+    protected abstract Mono<Long> runPass();
+
+    protected abstract int batchSize();
+
+    protected abstract Duration initialDelay();
+
+    protected abstract Duration pollInterval();
+
+    protected abstract Duration maxIdleDelay();
+
+    @Override
+    public void start() {
+        if (running.compareAndSet(false, true)) {
+            schedule(initialDelay());
+        }
+    }
+
+    @Override
+    public void stop() {
+        running.set(false);
+        Disposable pass = nextPass;
+        if (pass != null) {
+            pass.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Runs the next pass now if the scheduler is waiting between passes; a pass in progress
+     * is left alone and its successor is scheduled as usual.
+     */
+    public void wakeUp() {
+        if (running.get() && waiting.compareAndSet(true, false)) {
+            Disposable pending = nextPass;
+            if (pending != null) {
+                pending.dispose();
+            }
+            schedule(Duration.ZERO);
+        }
+    }
+
+    private void schedule(Duration delay) {
+        if (!running.get()) {
+            return;
+        }
+        waiting.set(true);
+        nextPass = Mono.delay(delay)
+                .filter(tick -> waiting.compareAndSet(true, false))
+                .flatMap(tick -> Mono.defer(this::runPass).defaultIfEmpty(0L))
+                .subscribe(rows -> schedule(nextDelay(rows)), error -> {
+                    log.error("{} pass failed", getClass().getSimpleName(), error);
+                    schedule(pollInterval());
+                });
+    }
+
+    private Duration nextDelay(long rows) {
+        if (rows >= batchSize()) {
+            idleDelay = Duration.ZERO;
+            return Duration.ZERO;
+        }
+        if (rows > 0) {
+            idleDelay = Duration.ZERO;
+            return pollInterval();
+        }
+        idleDelay = idleDelay.isZero()
+                ? pollInterval()
+                : min(idleDelay.multipliedBy(2), maxIdleDelay());
+        return idleDelay;
+    }
+
+    private static Duration min(Duration first, Duration second) {
+        return first.compareTo(second) <= 0 ? first : second;
+    }
+}
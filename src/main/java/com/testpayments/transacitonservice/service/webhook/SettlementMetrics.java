@@ -0,0 +1,44 @@
+package com.testpayments.transacitonservice.service.webhook;
+
+import com.testpayments.transacitonservice.entity.Transaction;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Component
+public class SettlementMetrics {
+
+    private final Timer passDuration;
+    private final DistributionSummary rowsProcessed;
+    private final Timer lag;
+
+    public SettlementMetrics(MeterRegistry meterRegistry) {
+        this.passDuration = Timer.builder("settlement.pass.duration")
+                .description("Duration of a single settlement pass")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rowsProcessed = DistributionSummary.builder("settlement.pass.rows")
+                .description("Transactions claimed by a single settlement pass")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.lag = Timer.builder("settlement.lag")
+                .description("Time between transaction creation and its settlement claim")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void recordPass(Duration duration, long rows) {
+        passDuration.record(duration);
+        rowsProcessed.record(rows);
+    }
+
+    public void recordLag(Transaction transaction) {
+        if (transaction.getCreatedAt() != null) {
+            lag.record(Duration.between(transaction.getCreatedAt(), LocalDateTime.now()));
+        }
+    }
+}
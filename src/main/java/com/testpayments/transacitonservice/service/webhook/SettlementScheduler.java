@@ -0,0 +1,44 @@
+package com.testpayments.transacitonservice.service.webhook;
+
+import com.testpayments.transacitonservice.config.SettlementProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+@Component
+@RequiredArgsConstructor
+public class SettlementScheduler extends PollingScheduler {
+
+    private final WebhookJob webhookJob;
+    private final SettlementProperties settlementProperties;
+    private final SettlementMetrics settlementMetrics;
+
+    @Override
+    protected Mono<Long> runPass() {
+        long startedAt = System.nanoTime();
+        return webhookJob.assignStatusToTransaction()
+                .doOnNext(rows -> settlementMetrics.recordPass(Duration.ofNanos(System.nanoTime() - startedAt), rows));
+    }
+
+    @Override
+    protected int batchSize() {
+        return settlementProperties.getBatchSize();
+    }
+
+    @Override
+    protected Duration initialDelay() {
+        return settlementProperties.getInitialDelay();
+    }
+
+    @Override
+    protected Duration pollInterval() {
+        return settlementProperties.getPollInterval();
+    }
+
+    @Override
+    protected Duration maxIdleDelay() {
+        return settlementProperties.getMaxIdleDelay();
+    }
+}
@@ -0,0 +1,119 @@
+package com.testpayments.transacitonservice.service.webhook;
+
+import com.testpayments.transacitonservice.config.WebhookAttemptWriterProperties;
+import com.testpayments.transacitonservice.entity.Webhook;
+import com.testpayments.transacitonservice.repository.WebhookRepository;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single writer for the webhook attempt log. Attempts are buffered and inserted in multi-row
+ * batches by size or time window; callers complete once their batch is persisted, so a slow
+ * database slows delivery down instead of piling up unacknowledged inserts.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WebhookAttemptWriter implements SmartLifecycle {
+
+    private static final int RESPONSE_BODY_MAX_LENGTH = 2048;
+    private static final Sinks.EmitFailureHandler RETRY_NON_SERIALIZED = Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100));
+
+    private final WebhookRepository webhookRepository;
+    private final WebhookAttemptWriterProperties properties;
+
+    private final Sinks.Many<PendingAttempt> attempts = Sinks.many().unicast().onBackpressureBuffer();
+    private volatile CompletableFuture<Void> drained;
+
+    public Mono<Void> write(Webhook webhook) {
+        return Mono.defer(() -> {
+            Sinks.Empty<Void> written = Sinks.empty();
+            attempts.emitNext(new PendingAttempt(webhook, written), RETRY_NON_SERIALIZED);
+            return written.asMono();
+        });
+    }
+
+    @Override
+    public synchronized void start() {
+        if (drained == null) {
+            drained = attempts.asFlux()
+                    .bufferTimeout(properties.getBatchSize(), properties.getFlushInterval(), true)
+                    .concatMap(this::flush)
+                    .then()
+                    .toFuture();
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (drained == null || drained.isDone()) {
+            return;
+        }
+        attempts.emitComplete(RETRY_NON_SERIALIZED);
+        try {
+            drained.get(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.error("Webhook attempts were not flushed on shutdown", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return drained != null && !drained.isDone();
+    }
+
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 1;
+    }
+
+    private Mono<Void> flush(List<PendingAttempt> batch) {
+        int size = batch.size();
+        String[] responseStatuses = new String[size];
+        String[] statuses = new String[size];
+        String[] responseBodies = new String[size];
+        String[] requestBodies = new String[size];
+        String[] notificationUrls = new String[size];
+        Integer[] attemptAmounts = new Integer[size];
+        UUID[] transactionIds = new UUID[size];
+        for (int i = 0; i < size; i++) {
+            Webhook webhook = batch.get(i).webhook;
+            responseStatuses[i] = webhook.getResponseStatus() != null ? webhook.getResponseStatus().name() : null;
+            statuses[i] = webhook.getStatus().name();
+            responseBodies[i] = truncate(webhook.getResponseBody());
+            requestBodies[i] = webhook.getRequestBody();
+            notificationUrls[i] = webhook.getNotificationUrl();
+            attemptAmounts[i] = webhook.getAttemptAmount();
+            transactionIds[i] = webhook.getTransactionId();
+        }
+        return webhookRepository.insertAll(responseStatuses, statuses, responseBodies, requestBodies, notificationUrls, attemptAmounts, transactionIds)
+                .doOnSuccess(rows -> batch.forEach(attempt -> attempt.written.tryEmitEmpty()))
+                .doOnError(error -> {
+                    log.error("Failed to write {} webhook attempts", size, error);
+                    batch.forEach(attempt -> attempt.written.tryEmitError(error));
+                })
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > RESPONSE_BODY_MAX_LENGTH ? value.substring(0, RESPONSE_BODY_MAX_LENGTH) : value;
+    }
+
+    @AllArgsConstructor
+    private static class PendingAttempt {
+        private final Webhook webhook;
+        private final Sinks.Empty<Void> written;
+    }
+}
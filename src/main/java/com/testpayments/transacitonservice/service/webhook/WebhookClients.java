@@ -0,0 +1,21 @@
+package com.testpayments.transacitonservice.service.webhook;
+
+import com.testpayments.transacitonservice.entity.WebhookProtocol;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+public class WebhookClients {
+
+    private final Map<WebhookProtocol, WebClient> clients;
+
+    public WebhookClients(Map<WebhookProtocol, WebClient> clients) {
+        this.clients = new EnumMap<>(clients);
+    }
+
+    public WebClient forProtocol(WebhookProtocol protocol) {
+        WebClient client = protocol != null ? clients.get(protocol) : null;
+        return client != null ? client : clients.get(WebhookProtocol.HTTP1);
+    }
+}
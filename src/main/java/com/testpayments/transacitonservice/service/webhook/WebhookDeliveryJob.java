@@ -0,0 +1,327 @@
+package com.testpayments.transacitonservice.service.webhook;
+
+import com.testpayments.transacitonservice.config.WebhookDeliveryProperties;
+import com.testpayments.transacitonservice.config.WebhookEndpointGuardProperties;
+import com.testpayments.transacitonservice.dto.CustomerDataDto;
+import com.testpayments.transacitonservice.dto.TopUpCardDataDto;
+import com.testpayments.transacitonservice.dto.WebhookDto;
+import com.testpayments.transacitonservice.entity.Card;
+import com.testpayments.transacitonservice.entity.Customer;
+import com.testpayments.transacitonservice.entity.Transaction;
+import com.testpayments.transacitonservice.entity.Webhook;
+import com.testpayments.transacitonservice.entity.WebhookDelivery;
+import com.testpayments.transacitonservice.entity.WebhookDeliveryStatus;
+import com.testpayments.transacitonservice.entity.WebhookResponseStatus;
+import com.testpayments.transacitonservice.exception.CustomNotFoundException;
+import com.testpayments.transacitonservice.service.CardService;
+import com.testpayments.transacitonservice.service.CustomerService;
+import com.testpayments.transacitonservice.service.TransactionService;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the webhook outbox written by settlement: claims due deliveries, sends them and
+ * either marks them delivered or schedules the next attempt on the tiered
+ * {@code webhook.delivery.retry-schedule}. Merchants that opted into batching
+ * receive the due webhooks for one notification url as a single JSON array.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WebhookDeliveryJob {
+
+    private static final long RETRY_JITTER_MULTIPLIER = 3;
+
+    private final TransactionService transactionService;
+    private final CardService cardService;
+    private final CustomerService customerService;
+    private final WebhookService webhookService;
+    private final WebhookDeliveryProperties webhookDeliveryProperties;
+    private final WebhookEndpointGuard webhookEndpointGuard;
+    private final WebhookEndpointGuardProperties webhookEndpointGuardProperties;
+    private final WebhookPayloadWriter webhookPayloadWriter;
+    private final WebhookMerchantSettingsCache webhookMerchantSettingsCache;
+    private final WebhookRetryWheel webhookRetryWheel;
+
+    public Mono<Long> deliverDueWebhooks() {
+        return webhookService.claimDueDeliveries(webhookDeliveryProperties.getNodeId(),
+                        webhookDeliveryProperties.getLeaseDuration(), webhookDeliveryProperties.getBatchSize())
+                .flatMap(delivery -> webhookMerchantSettingsCache.find(delivery.getMerchantId())
+                        .map(settings -> new DueDelivery(delivery, settings))
+                        .onErrorResume(error -> parkWithoutSettings(delivery, error)))
+                .collectList()
+                .flatMapMany(this::groupIntoRequests)
+                .flatMap(request -> send(request)
+                                .onErrorResume(error -> {
+                                    log.error("Webhook delivery of {} item(s) to {} failed, it will be retried after the lease expires",
+                                            request.deliveries.size(), request.deliveries.get(0).getNotificationUrl(), error);
+                                    return Mono.empty();
+                                })
+                                .then(Mono.just((long) request.deliveries.size())),
+                        webhookDeliveryProperties.getConcurrency())
+                .reduce(0L, Long::sum);
+    }
+
+    // Deliveries of batching merchants that were claimed in the same pass and share a notification url
+    // are sent as one request, so the poll interval and max-batch-items form the batching window.
+    private Flux<DeliveryRequest> groupIntoRequests(List<DueDelivery> due) {
+        Map<Object, List<DueDelivery>> groups = due.stream()
+                .collect(Collectors.groupingBy(this::requestKey, LinkedHashMap::new, Collectors.toList()));
+        return Flux.fromIterable(groups.values())
+                .flatMap(group -> Flux.fromIterable(group)
+                        .map(dueDelivery -> dueDelivery.delivery)
+                        .buffer(webhookDeliveryProperties.getMaxBatchItems())
+                        .map(deliveries -> new DeliveryRequest(deliveries, group.get(0).settings)));
+    }
+
+    private Object requestKey(DueDelivery dueDelivery) {
+        WebhookDelivery delivery = dueDelivery.delivery;
+        return dueDelivery.settings.isBatching()
+                ? Arrays.asList(delivery.getMerchantId(), delivery.getNotificationUrl())
+                : delivery.getId();
+    }
+
+    // A delivery whose merchant settings cannot be loaded is parked on its own rather than failing the
+    // pass, and is not sent with the default settings, which would drop the merchant's signature.
+    private Mono<DueDelivery> parkWithoutSettings(WebhookDelivery delivery, Throwable error) {
+        log.error("Webhook settings of merchant {} could not be loaded, delivery for transaction with id {} was parked",
+                delivery.getMerchantId(), delivery.getTransactionId(), error);
+        delivery.setNextAttemptAt(LocalDateTime.now().plus(webhookEndpointGuardProperties.getParkDuration()));
+        return webhookService.updateDelivery(delivery)
+                .onErrorResume(updateError -> {
+                    log.error("Parked webhook delivery {} was not updated, it will be retried after the lease expires",
+                            delivery.getId(), updateError);
+                    return Mono.empty();
+                })
+                .then(Mono.empty());
+    }
+
+    private Mono<Void> send(DeliveryRequest request) {
+        if (request.settings.isBatching()) {
+            return deliverBatch(request.deliveries, request.settings).then();
+        }
+        return deliver(request.deliveries.get(0), request.settings).then();
+    }
+
+    private Mono<WebhookDelivery> deliver(WebhookDelivery delivery, WebhookMerchantSettings settings) {
+        if (webhookEndpointGuard.isOpen(delivery.getNotificationUrl())) {
+            return webhookService.updateDelivery(park(delivery));
+        }
+        int attempt = delivery.getAttemptCount() + 1;
+        return loadWebhook(delivery)
+                .flatMap(loaded -> webhookService.sendWebhook(WebhookRequest.of(loaded.webhook.getNotificationUrl(), loaded.payload, settings))
+                        .doOnSuccess(response -> {
+                            log.info("Webhook sent successfully for transaction with id {}", delivery.getTransactionId());
+                            markWebhookSuccessful(loaded.webhook, response);
+                        })
+                        .then(Mono.fromSupplier(() -> markDelivered(delivery, attempt)))
+                        .onErrorResume(WebhookEndpointGuard::isRejection, error -> Mono.just(park(delivery)))
+                        .onErrorResume(error -> {
+                            handleError(loaded.webhook, error);
+                            return Mono.just(scheduleRetry(delivery, attempt));
+                        })
+                        .flatMap(updated -> recordAttempt(loaded.webhook).thenReturn(updated)))
+                .onErrorResume(error -> Mono.just(failToLoad(delivery, attempt, error)))
+                .flatMap(webhookService::updateDelivery);
+    }
+
+    private Flux<WebhookDelivery> deliverBatch(List<WebhookDelivery> deliveries, WebhookMerchantSettings settings) {
+        String notificationUrl = deliveries.get(0).getNotificationUrl();
+        if (webhookEndpointGuard.isOpen(notificationUrl)) {
+            return Flux.fromIterable(deliveries)
+                    .flatMap(delivery -> webhookService.updateDelivery(park(delivery)));
+        }
+        return Flux.fromIterable(deliveries)
+                .concatMap(delivery -> loadWebhook(delivery)
+                        .onErrorResume(error -> leaveOutOfBatch(delivery, error)))
+                .collectList()
+                .filter(items -> !items.isEmpty())
+                .flatMapMany(items -> sendBatch(notificationUrl, items, settings));
+    }
+
+    private Mono<LoadedWebhook> leaveOutOfBatch(WebhookDelivery delivery, Throwable error) {
+        return webhookService.updateDelivery(failToLoad(delivery, delivery.getAttemptCount() + 1, error))
+                .onErrorResume(updateError -> {
+                    log.error("Webhook delivery {} was not updated, it will be retried after the lease expires",
+                            delivery.getId(), updateError);
+                    return Mono.empty();
+                })
+                .then(Mono.empty());
+    }
+
+    private Flux<WebhookDelivery> sendBatch(String notificationUrl, List<LoadedWebhook> items, WebhookMerchantSettings settings) {
+        WebhookRequest batch = WebhookRequest.of(notificationUrl,
+                webhookPayloadWriter.writeArray(items.stream().map(item -> item.payload).toList()), settings);
+        return webhookService.sendWebhook(batch)
+                .doOnSuccess(response -> {
+                    log.info("Webhook batch of {} item(s) sent successfully to {}", items.size(), notificationUrl);
+                    items.forEach(item -> {
+                        markWebhookSuccessful(item.webhook, response);
+                        markDelivered(item.delivery, item.webhook.getAttemptAmount());
+                    });
+                })
+                .then(Mono.just(items))
+                .onErrorResume(WebhookEndpointGuard::isRejection, error -> {
+                    items.forEach(item -> park(item.delivery));
+                    return Mono.just(items);
+                })
+                .onErrorResume(error -> {
+                    log.error("Webhook batch of {} item(s) to {} failed: {}", items.size(), notificationUrl, error.getMessage(), error);
+                    String responseBody = error instanceof WebClientResponseException ex ? ex.getResponseBodyAsString() : null;
+                    items.forEach(item -> {
+                        markWebhookFailed(item.webhook, responseBody);
+                        scheduleRetry(item.delivery, item.webhook.getAttemptAmount());
+                    });
+                    return Mono.just(items);
+                })
+                .flatMapMany(Flux::fromIterable)
+                .flatMap(item -> recordAttempt(item.webhook).then(webhookService.updateDelivery(item.delivery)));
+    }
+
+    private Mono<LoadedWebhook> loadWebhook(WebhookDelivery delivery) {
+        return transactionService.findTransactionById(delivery.getTransactionId(), delivery.getTransactionCreatedAt())
+                .flatMap(transaction -> cardService.findCardById(transaction.getCardId())
+                        .flatMap(card -> customerService.findCustomerById(card.getCustomerId())
+                                .map(customer -> createWebhook(delivery, createWebhookRequest(transaction, card, customer), transaction))
+                                .switchIfEmpty(Mono.error(new CustomNotFoundException("Customer was not found with ID: " + card.getCustomerId())))));
+    }
+
+    private WebhookDelivery markDelivered(WebhookDelivery delivery, int attempt) {
+        delivery.setAttemptCount(attempt);
+        delivery.setDeliveryStatus(WebhookDeliveryStatus.DELIVERED);
+        return delivery;
+    }
+
+    // A delivery whose webhook cannot be built counts as a failed attempt, so it follows the retry
+    // schedule and ends up FAILED instead of being claimed again after every lease.
+    private WebhookDelivery failToLoad(WebhookDelivery delivery, int attempt, Throwable error) {
+        log.error("Webhook for transaction with id {} could not be built", delivery.getTransactionId(), error);
+        return scheduleRetry(delivery, attempt);
+    }
+
+    private WebhookDelivery park(WebhookDelivery delivery) {
+        log.info("Webhook delivery for transaction with id {} was parked, endpoint is unavailable", delivery.getTransactionId());
+        delivery.setNextAttemptAt(LocalDateTime.now().plus(webhookEndpointGuardProperties.getParkDuration()));
+        return delivery;
+    }
+
+    private WebhookDelivery scheduleRetry(WebhookDelivery delivery, int attempt) {
+        delivery.setAttemptCount(attempt);
+        List<Duration> retrySchedule = webhookDeliveryProperties.getRetrySchedule();
+        if (attempt > retrySchedule.size()) {
+            log.info("Webhook delivery attempts are exhausted for transaction with id {}", delivery.getTransactionId());
+            delivery.setDeliveryStatus(WebhookDeliveryStatus.FAILED);
+        } else {
+            Duration delay = withJitter(retrySchedule.get(attempt - 1));
+            delivery.setNextAttemptAt(LocalDateTime.now().plus(delay));
+            webhookRetryWheel.schedule(delay);
+        }
+        return delivery;
+    }
+
+    // Spreads retries of deliveries that failed together over [tier, 3 * tier] so they do not hit
+    // a recovering endpoint at the same moment.
+    private static Duration withJitter(Duration tier) {
+        return tier.plusMillis(ThreadLocalRandom.current().nextLong(tier.toMillis() * (RETRY_JITTER_MULTIPLIER - 1) + 1));
+    }
+
+    private void handleError(Webhook webhook, Throwable error) {
+        if (error instanceof WebClientResponseException) {
+            WebClientResponseException ex = (WebClientResponseException) error;
+            markWebhookFailed(webhook, ex.getResponseBodyAsString());
+            log.info("Webhook sending failed for webhook with transaction id {}", webhook.getTransactionId());
+        } else {
+            log.error("Error sending webhook: {}", error.getMessage(), error);
+            markWebhookFailed(webhook, null);
+        }
+    }
+
+    private void markWebhookSuccessful(Webhook webhook, String responseBody) {
+        webhook.setResponseStatus(WebhookResponseStatus.SUCCESSFUL);
+        webhook.setResponseBody(responseBody);
+    }
+
+    private void markWebhookFailed(Webhook webhook, String responseBody) {
+        webhook.setResponseStatus(WebhookResponseStatus.FAILED);
+        webhook.setResponseBody(responseBody);
+    }
+
+    private Mono<Void> recordAttempt(Webhook webhook) {
+        if (webhook.getResponseStatus() == null) {
+            return Mono.empty();
+        }
+        return webhookService.recordAttempt(webhook)
+                .onErrorResume(error -> {
+                    log.error("Webhook attempt for transaction with id {} was not recorded", webhook.getTransactionId(), error);
+                    return Mono.empty();
+                });
+    }
+
+    private WebhookDto createWebhookRequest(Transaction transaction, Card card, Customer customer) {
+        return WebhookDto.builder()
+                .paymentMethod("Card")
+                .amount(transaction.getAmount())
+                .currency(transaction.getCurrency())
+                .type("Transaction")
+                .transactionId(transaction.getId())
+                .createdAt(transaction.getCreatedAt())
+                .updatedAt(transaction.getUpdatedAt())
+                .topUpCardDataDto(TopUpCardDataDto.builder()
+                        .cardNumber(card.getCardNumber())
+                        .build())
+                .language(transaction.getLanguage())
+                .customerDataDto(CustomerDataDto.builder()
+                        .firstName(customer.getFirstName())
+                        .lastName(customer.getLastName())
+                        .build())
+                .status(transaction.getStatus())
+                .message("OK")
+                .build();
+    }
+
+    private LoadedWebhook createWebhook(WebhookDelivery delivery, WebhookDto webhookDto, Transaction transaction) {
+        byte[] payload = webhookPayloadWriter.write(webhookDto);
+        Webhook webhook = Webhook.builder()
+                .status(webhookDto.getStatus())
+                .requestBody(new String(payload, StandardCharsets.UTF_8))
+                .notificationUrl(transaction.getNotificationUrl())
+                .transactionId(transaction.getId())
+                .attemptAmount(delivery.getAttemptCount() + 1)
+                .build();
+        return new LoadedWebhook(delivery, webhook, payload);
+    }
+
+    @AllArgsConstructor
+    private static class DueDelivery {
+        private final WebhookDelivery delivery;
+        private final WebhookMerchantSettings settings;
+    }
+
+    @AllArgsConstructor
+    private static class DeliveryRequest {
+        private final List<WebhookDelivery> deliveries;
+        private final WebhookMerchantSettings settings;
+    }
+
+    @AllArgsConstructor
+    private static class LoadedWebhook {
+        private final WebhookDelivery delivery;
+        private final Webhook webhook;
+        private final byte[] payload;
+    }
+}
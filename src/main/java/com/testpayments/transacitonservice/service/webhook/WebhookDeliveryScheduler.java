@@ -0,0 +1,48 @@
+package com.testpayments.transacitonservice.service.webhook;
+
+import com.testpayments.transacitonservice.config.WebhookDeliveryProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+@Component
+@RequiredArgsConstructor
+public class WebhookDeliveryScheduler extends PollingScheduler {
+
+    private final WebhookDeliveryJob webhookDeliveryJob;
+    private final WebhookDeliveryProperties webhookDeliveryProperties;
+    private final WebhookRetryWheel webhookRetryWheel;
+
+    @Override
+    public void start() {
+        webhookRetryWheel.onDue(this::wakeUp);
+        super.start();
+    }
+
+    @Override
+    protected Mono<Long> runPass() {
+        return webhookDeliveryJob.deliverDueWebhooks();
+    }
+
+    @Override
+    protected int batchSize() {
+        return webhookDeliveryProperties.getBatchSize();
+    }
+
+    @Override
+    protected Duration initialDelay() {
+        return webhookDeliveryProperties.getInitialDelay();
+    }
+
+    @Override
+    protected Duration pollInterval() {
+        return webhookDeliveryProperties.getPollInterval();
+    }
+
+    @Override
+    protected Duration maxIdleDelay() {
+        return webhookDeliveryProperties.getMaxIdleDelay();
+    }
+}
@@ -0,0 +1,116 @@
+package com.testpayments.transacitonservice.service.webhook;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.testpayments.transacitonservice.config.WebhookEndpointGuardProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Per-host circuit breaker and bulkhead around webhook calls, so a failing or slow merchant
+ * endpoint is isolated from deliveries to everyone else. Hosts come from merchant supplied URLs, so
+ * the guards live in a cache bounded by {@code webhook.endpoint-guard.maximum-hosts} that drops hosts
+ * idle for {@code idle-host-expiry}; an evicted host loses its breaker, bulkhead and meters.
+ */
+@Component
+public class WebhookEndpointGuard {
+
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+    private final Cache<String, HostGuard> hostGuards;
+
+    @Autowired
+    public WebhookEndpointGuard(WebhookEndpointGuardProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Ticker.systemTicker());
+    }
+
+    public WebhookEndpointGuard(WebhookEndpointGuardProperties properties, MeterRegistry meterRegistry, Ticker ticker) {
+        this.circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(properties.getFailureRateThreshold())
+                .slidingWindowSize(properties.getSlidingWindowSize())
+                .minimumNumberOfCalls(properties.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(properties.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(properties.getPermittedCallsInHalfOpenState())
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .build());
+        this.bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getMaxConcurrentCallsPerHost())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        // The eviction listener runs atomically with the eviction, so a host guarded again right after
+        // cannot pick up the registry entries that are being removed. Removing them drops their meters.
+        this.hostGuards = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumHosts())
+                .expireAfterAccess(properties.getIdleHostExpiry())
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .<String, HostGuard>evictionListener((host, guard, cause) -> {
+                    circuitBreakers.remove(host);
+                    bulkheads.remove(host);
+                })
+                .build();
+    }
+
+    public <T> Mono<T> protect(String notificationUrl, Mono<T> call) {
+        HostGuard guard = hostGuards.get(host(notificationUrl), this::newHostGuard);
+        return call.transformDeferred(CircuitBreakerOperator.of(guard.circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(guard.bulkhead));
+    }
+
+    public boolean isOpen(String notificationUrl) {
+        HostGuard guard = hostGuards.getIfPresent(host(notificationUrl));
+        if (guard == null) {
+            return false;
+        }
+        CircuitBreaker.State state = guard.circuitBreaker.getState();
+        return state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    public static boolean isRejection(Throwable error) {
+        return error instanceof CallNotPermittedException || error instanceof BulkheadFullException;
+    }
+
+    private HostGuard newHostGuard(String host) {
+        return new HostGuard(circuitBreakers.circuitBreaker(host), bulkheads.bulkhead(host));
+    }
+
+    private static String host(String notificationUrl) {
+        try {
+            String host = URI.create(notificationUrl).getHost();
+            return host != null ? host : notificationUrl;
+        } catch (IllegalArgumentException e) {
+            return notificationUrl;
+        }
+    }
+
+    private static final class HostGuard {
+
+        private final CircuitBreaker circuitBreaker;
+        private final Bulkhead bulkhead;
+
+        private HostGuard(CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+            this.circuitBreaker = circuitBreaker;
+            this.bulkhead = bulkhead;
+        }
+    }
+}
@@ -1,35 +1,23 @@
 package com.testpayments.transacitonservice.service.webhook;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.testpayments.transacitonservice.dto.TopUpCardDataDto;
-import com.testpayments.transacitonservice.dto.CustomerDataDto;
-import com.testpayments.transacitonservice.dto.WebhookDto;
-import com.testpayments.transacitonservice.entity.Account;
-import com.testpayments.transacitonservice.entity.Card;
-import com.testpayments.transacitonservice.entity.Customer;
+import com.testpayments.transacitonservice.config.SettlementProperties;
 import com.testpayments.transacitonservice.entity.Status;
 import com.testpayments.transacitonservice.entity.Transaction;
 import com.testpayments.transacitonservice.entity.Type;
-import com.testpayments.transacitonservice.entity.Webhook;
-import com.testpayments.transacitonservice.entity.WebhookResponseStatus;
-import com.testpayments.transacitonservice.exception.CustomExhaustedException;
 import com.testpayments.transacitonservice.service.AccountService;
 import com.testpayments.transacitonservice.service.CardService;
-import com.testpayments.transacitonservice.service.CustomerService;
 import com.testpayments.transacitonservice.service.TransactionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.reactive.TransactionalOperator;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.util.retry.Retry;
 
 import java.math.BigDecimal;
-import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
 
 @Slf4j
@@ -40,162 +28,130 @@ public class WebhookJob {
     private final TransactionService transactionService;
     private final AccountService accountService;
     private final CardService cardService;
-    private final CustomerService customerService;
     private final WebhookService webhookService;
     private final TransactionalOperator transactionalOperator;
+    private final SettlementProperties settlementProperties;
+    private final SettlementMetrics settlementMetrics;
 
-
-    @Scheduled(fixedRate = 5000, initialDelay = 10000)
-    public Mono<Void> assignStatusToTransaction() {
-        return transactionService.findAllTransactionsByStatus(Status.IN_PROCESS)
+    public Mono<Long> assignStatusToTransaction() {
+        if (settlementProperties.isBatchEnabled()) {
+            return settleBatch();
+        }
+        return claimTransactions()
                 .doOnNext(transaction -> log.info("Processing transaction with ID: " + transaction.getId() + " and status: " + transaction.getStatus()))
-                .flatMap(transaction ->
-                        transactionalOperator.transactional(
-                                        Mono.just(transaction)
-                                                .map(transactionService::assignRandomStatus)
-                                                .flatMap(transactionService::updateTransaction)
-                                                .flatMap(updatedTransaction ->
-                                                        accountService.findAccountByIdForUpdate(transaction.getAccountId())
-                                                                .flatMap(account -> updateAccountBalance(transaction, account)))
-                                )
-                                .doOnSuccess(aVoid -> log.info("Transaction successfully completed for transaction id {}", transaction.getId()))
-                                .flatMap(account -> sendWebhook(transaction))
+                .flatMap(transaction -> settleTransaction(transactionService.assignRandomStatus(transaction))
+                                .thenReturn(transaction),
+                        settlementProperties.getConcurrency(), settlementProperties.getPrefetch()
                 )
-                .then();
+                .count();
     }
 
-    private Mono<?> updateAccountBalance(Transaction transaction, Account account) {
-        return cardService.findCardById(transaction.getCardId())
-                .flatMap(card -> {
-                    BigDecimal currentAccountBalance = account.getBalance();
-                    BigDecimal currentCardBalance = card.getBalance();
-                    BigDecimal transactionAmount = transaction.getAmount();
-
-                    if (transaction.getStatus().equals(Status.APPROVED)) {
-                        log.info("Transaction with id {} was approved", transaction.getId());
-                        if (transaction.getType().equals(Type.TOP_UP)) {
-                            account.setBalance(currentAccountBalance.add(transactionAmount));
-                            log.info("Account balance was increased for transaction with id {}", transaction.getId());
-                            return accountService.updateAccount(account);
-                        } else {
-                            card.setBalance(currentCardBalance.add(transactionAmount));
-                            log.info("Card balance was increased for transaction with id {}", transaction.getId());
-                            return cardService.updateCard(card);
-                        }
-
-                    }
-
-                    if (transaction.getStatus().equals(Status.FAILED)) {
-                        log.info("Transaction with id {} was failed", transaction.getId());
-                        if (transaction.getType().equals(Type.TOP_UP)) {
-                            card.setBalance(currentCardBalance.add(transactionAmount));
-                            log.info("Card balance was increased for transaction with id {}", transaction.getId());
-                            return cardService.updateCard(card);
-                        } else {
-                            account.setBalance(currentAccountBalance.add(transactionAmount));
-                            log.info("Account balance was increased for transaction with id {}", transaction.getId());
-                            return accountService.updateAccount(account);
-                        }
-                    }
-
-                    return Mono.error(new IllegalStateException("Invalid transaction status"));
-                });
+    private Mono<Void> settleTransaction(Transaction transaction) {
+        return transactionalOperator.transactional(
+                        completeClaimedTransaction(transaction)
+                                .flatMap(this::updateBalances)
+                                .flatMap(updated -> webhookService.enqueueDeliveries(List.of(transaction.getId())))
+                )
+                .doOnSuccess(aVoid -> log.info("Transaction successfully completed for transaction id {}", transaction.getId()));
     }
 
-    private Mono<String> sendWebhook(Transaction transaction) {
-        return cardService.findCardById(transaction.getCardId())
-                .flatMap(card -> customerService.findCustomerById(card.getCustomerId())
-                        .flatMap(customer -> sendWebhookWithRetries(transaction, card, customer))
-                );
+    private Flux<Transaction> claimTransactions() {
+        return transactionService.claimTransactions(Status.IN_PROCESS, settlementProperties.getNodeId(),
+                        settlementProperties.getLeaseDuration(), settlementProperties.getBatchSize())
+                .doOnNext(settlementMetrics::recordLag);
     }
 
-    private Mono<String> sendWebhookWithRetries(Transaction transaction, Card card, Customer customer) {
-        UUID transactionId = transaction.getId();
-        return webhookService.findMaxAttemptCountByTransactionId(transactionId)
-                .defaultIfEmpty(0)
-                .flatMap(maxAttempt -> Mono.defer(() -> {
-                    int attemptAmount = maxAttempt + 1;
-                    WebhookDto webhookDto = createWebhookRequest(transaction, card, customer);
-                    Webhook webhook = createWebhook(webhookDto, transaction);
-                    webhook.setAttemptAmount(attemptAmount);
-
-                    return webhookService.sendWebhook(webhook)
-                            .doOnSuccess(response -> {
-                                log.info("Webhook sent successfully for transaction with id {}", transactionId);
-                                saveWebhookWhenSuccess(webhook, response);
-                            })
-                            .onErrorResume(error -> handleError(webhook, error, transactionId));
-                }))
-                .retryWhen(Retry.backoff(4, Duration.ofSeconds(1))
-                        .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) ->
-                                new CustomExhaustedException()))
-                .onErrorResume(CustomExhaustedException.class, ex -> Mono.empty());
+    private Mono<Transaction> completeClaimedTransaction(Transaction transaction) {
+        return transactionService.completeClaimedTransactions(List.of(transaction), settlementProperties.getNodeId())
+                .filter(completed -> !completed.isEmpty())
+                .map(completed -> transaction);
     }
 
-    private Mono<String> handleError(Webhook webhook, Throwable error, UUID transactionId) {
-        if (error instanceof WebClientResponseException) {
-            WebClientResponseException ex = (WebClientResponseException) error;
-            saveWebhookWhenFailed(webhook, ex.getResponseBodyAsString());
-            log.info("Webhook sending failed for webhook with transaction id {}", transactionId);
-            return Mono.error(new RuntimeException("Server error, retrying...", ex));
-        } else {
-            log.error("Error sending webhook: {}", error.getMessage(), error);
-            saveWebhookWhenFailed(webhook, null);
-            return Mono.error(new RuntimeException("Client error, retrying...", error));
+    private Mono<?> updateBalances(Transaction transaction) {
+        BigDecimal transactionAmount = transaction.getAmount();
+
+        if (transaction.getStatus().equals(Status.APPROVED)) {
+            log.info("Transaction with id {} was approved", transaction.getId());
+            if (transaction.getType().equals(Type.TOP_UP)) {
+                log.info("Account balance was increased for transaction with id {}", transaction.getId());
+                return accountService.creditAccount(transaction.getAccountId(), transactionAmount, transaction.getId())
+                        .thenReturn(transaction);
+            } else {
+                return creditCard(transaction);
+            }
         }
-    }
 
-    private void saveWebhookWhenSuccess(Webhook webhook, String responseBody) {
-        webhook.setResponseStatus(WebhookResponseStatus.SUCCESSFUL);
-        webhook.setResponseBody(responseBody);
-        webhookService.save(webhook).subscribe();
+        if (transaction.getStatus().equals(Status.FAILED)) {
+            log.info("Transaction with id {} was failed", transaction.getId());
+            if (transaction.getType().equals(Type.TOP_UP)) {
+                return creditCard(transaction);
+            } else {
+                log.info("Account balance was increased for transaction with id {}", transaction.getId());
+                return accountService.creditAccount(transaction.getAccountId(), transactionAmount, transaction.getId())
+                        .thenReturn(transaction);
+            }
+        }
+
+        return Mono.error(new IllegalStateException("Invalid transaction status"));
     }
 
-    private void saveWebhookWhenFailed(Webhook webhook, String responseBody) {
-        webhook.setResponseStatus(WebhookResponseStatus.FAILED);
-        webhook.setResponseBody(responseBody);
-        webhookService.save(webhook).subscribe();
+    private Mono<Transaction> creditCard(Transaction transaction) {
+        log.info("Card balance was increased for transaction with id {}", transaction.getId());
+        return cardService.creditCard(transaction.getCardId(), transaction.getAmount())
+                .thenReturn(transaction);
     }
 
-    private WebhookDto createWebhookRequest(Transaction transaction, Card card, Customer customer) {
-        return WebhookDto.builder()
-                .paymentMethod("Card")
-                .amount(transaction.getAmount())
-                .currency(transaction.getCurrency())
-                .type("Transaction")
-                .transactionId(transaction.getId())
-                .createdAt(transaction.getCreatedAt())
-                .updatedAt(transaction.getUpdatedAt())
-                .topUpCardDataDto(TopUpCardDataDto.builder()
-                        .cardNumber(card.getCardNumber())
-                        .build())
-                .language(transaction.getLanguage())
-                .customerDataDto(CustomerDataDto.builder()
-                        .firstName(customer.getFirstName())
-                        .lastName(customer.getLastName())
-                        .build())
-                .status(transaction.getStatus())
-                .message("OK")
-                .build();
+    private Mono<Long> settleBatch() {
+        return claimTransactions()
+                .doOnNext(transaction -> log.info("Processing transaction with ID: {} and status: {}", transaction.getId(), transaction.getStatus()))
+                .map(transactionService::assignRandomStatus)
+                .collectList()
+                .flatMap(claimed -> transactionalOperator.transactional(
+                                transactionService.completeClaimedTransactions(claimed, settlementProperties.getNodeId())
+                                        .flatMap(this::applyBatch))
+                        .doOnSuccess(transactions -> log.info("Batch of {} transactions was settled", transactions.size()))
+                        .then()
+                        .onErrorResume(error -> settleOneByOne(claimed, error))
+                        .thenReturn((long) claimed.size()));
     }
 
-    private Webhook createWebhook(WebhookDto webhookDto, Transaction transaction) {
-        String jsonRequest = convertDtoToJson(webhookDto);
-        return Webhook.builder()
-                .status(webhookDto.getStatus())
-                .requestBody(jsonRequest)
-                .notificationUrl(transaction.getNotificationUrl())
-                .transactionId(transaction.getId())
-                .build();
+    // The batch rolled back as a whole and its rows are still claimed by this node, so settling them one
+    // by one leaves only the rows that broke the batch to be claimed again once their lease expires.
+    private Mono<Void> settleOneByOne(List<Transaction> claimed, Throwable error) {
+        log.warn("Batch of {} transactions was not settled, settling them one by one", claimed.size(), error);
+        return Flux.fromIterable(claimed)
+                .flatMap(transaction -> settleTransaction(transaction)
+                                .onErrorResume(transactionError -> {
+                                    log.error("Transaction with id {} was not settled", transaction.getId(), transactionError);
+                                    return Mono.empty();
+                                }),
+                        settlementProperties.getConcurrency(), settlementProperties.getPrefetch())
+                .then();
     }
 
-    private String convertDtoToJson(WebhookDto webhookDto) {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.registerModule(new JavaTimeModule());
-            return mapper.writeValueAsString(webhookDto);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Error converting WebhookDto to JSON", e);
+    private Mono<List<Transaction>> applyBatch(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return Mono.just(transactions);
+        }
+        Map<UUID, BigDecimal> accountCredits = new TreeMap<>();
+        Map<UUID, BigDecimal> cardCredits = new TreeMap<>();
+        for (Transaction transaction : transactions) {
+            if (creditsAccount(transaction)) {
+                accountCredits.merge(transaction.getAccountId(), transaction.getAmount(), BigDecimal::add);
+            } else {
+                cardCredits.merge(transaction.getCardId(), transaction.getAmount(), BigDecimal::add);
+            }
         }
+        UUID stripeKey = UUID.randomUUID();
+        return Flux.fromIterable(accountCredits.entrySet())
+                .concatMap(credit -> accountService.creditAccount(credit.getKey(), credit.getValue(), stripeKey))
+                .thenMany(Flux.fromIterable(cardCredits.entrySet())
+                        .concatMap(credit -> cardService.creditCard(credit.getKey(), credit.getValue())))
+                .then(webhookService.enqueueDeliveries(transactions.stream().map(Transaction::getId).toList()))
+                .thenReturn(transactions);
+    }
+
+    private boolean creditsAccount(Transaction transaction) {
+        return transaction.getStatus().equals(Status.APPROVED) == transaction.getType().equals(Type.TOP_UP);
     }
 }
@@ -0,0 +1,45 @@
+package com.testpayments.transacitonservice.service.webhook;
+
+import com.testpayments.transacitonservice.entity.Merchant;
+import com.testpayments.transacitonservice.entity.WebhookProtocol;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class WebhookMerchantSettings {
+
+    public static final WebhookMerchantSettings DEFAULT = new WebhookMerchantSettings(WebhookProtocol.HTTP1, false, List.of());
+
+    private final WebhookProtocol protocol;
+    private final boolean batching;
+    private final List<WebhookSigningKey> signingKeys;
+
+    public static WebhookMerchantSettings from(Merchant merchant, Duration signingKeyOverlap) {
+        return new WebhookMerchantSettings(merchant.getWebhookProtocol() != null ? merchant.getWebhookProtocol() : WebhookProtocol.HTTP1,
+                merchant.isWebhookBatching(),
+                signingKeys(merchant, signingKeyOverlap));
+    }
+
+    // After a rotation webhooks are signed with both keys until the overlap ends, so the merchant
+    // can switch its verification key without rejecting webhooks in between.
+    private static List<WebhookSigningKey> signingKeys(Merchant merchant, Duration signingKeyOverlap) {
+        List<WebhookSigningKey> keys = new ArrayList<>(2);
+        if (StringUtils.hasText(merchant.getWebhookSigningKey())) {
+            keys.add(new WebhookSigningKey(merchant.getWebhookSigningKey()));
+        }
+        LocalDateTime rotatedAt = merchant.getWebhookSigningKeyRotatedAt();
+        if (StringUtils.hasText(merchant.getWebhookPreviousSigningKey())
+                && rotatedAt != null
+                && rotatedAt.plus(signingKeyOverlap).isAfter(LocalDateTime.now())) {
+            keys.add(new WebhookSigningKey(merchant.getWebhookPreviousSigningKey()));
+        }
+        return List.copyOf(keys);
+    }
+}
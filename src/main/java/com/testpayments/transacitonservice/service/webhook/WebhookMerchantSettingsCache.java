@@ -0,0 +1,47 @@
+package com.testpayments.transacitonservice.service.webhook;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.testpayments.transacitonservice.config.WebhookDeliveryProperties;
+import com.testpayments.transacitonservice.service.MerchantService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Per-merchant webhook delivery settings, cached for {@code webhook.delivery.merchant-settings-ttl}
+ * so delivery does not look the merchant up for every webhook.
+ */
+@Component
+public class WebhookMerchantSettingsCache {
+
+    private static final String CACHE_NAME = "webhook.merchant.settings";
+
+    private final MerchantService merchantService;
+    private final Duration signingKeyOverlap;
+    private final AsyncCache<UUID, WebhookMerchantSettings> settings;
+
+    public WebhookMerchantSettingsCache(MerchantService merchantService, WebhookDeliveryProperties properties, MeterRegistry meterRegistry) {
+        this.merchantService = merchantService;
+        this.signingKeyOverlap = properties.getSigningKeyOverlap();
+        this.settings = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(properties.getMerchantSettingsTtl())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, settings, CACHE_NAME);
+    }
+
+    public Mono<WebhookMerchantSettings> find(UUID merchantId) {
+        if (merchantId == null) {
+            return Mono.just(WebhookMerchantSettings.DEFAULT);
+        }
+        return Mono.fromFuture(() -> settings.get(merchantId, (id, executor) -> merchantService.findByMerchantId(id)
+                .map(merchant -> WebhookMerchantSettings.from(merchant, signingKeyOverlap))
+                .toFuture()));
+    }
+}
@@ -0,0 +1,51 @@
+package com.testpayments.transacitonservice.service.webhook;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.testpayments.transacitonservice.dto.WebhookDto;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Serializes webhook payloads with a writer pre-built from the application {@link ObjectMapper},
+ * so serializers are resolved once instead of per webhook. Batched deliveries join the already
+ * serialized items into a JSON array instead of serializing them a second time.
+ */
+@Component
+public class WebhookPayloadWriter {
+
+    private final ObjectWriter webhookWriter;
+
+    public WebhookPayloadWriter(ObjectMapper objectMapper) {
+        this.webhookWriter = objectMapper.writerFor(WebhookDto.class);
+    }
+
+    public byte[] write(WebhookDto webhookDto) {
+        try {
+            return webhookWriter.writeValueAsBytes(webhookDto);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error converting WebhookDto to JSON", e);
+        }
+    }
+
+    public byte[] writeArray(List<byte[]> payloads) {
+        int length = payloads.size() + 1;
+        for (byte[] payload : payloads) {
+            length += payload.length;
+        }
+        byte[] array = new byte[Math.max(length, 2)];
+        int position = 0;
+        array[position++] = '[';
+        for (byte[] payload : payloads) {
+            if (position > 1) {
+                array[position++] = ',';
+            }
+            System.arraycopy(payload, 0, array, position, payload.length);
+            position += payload.length;
+        }
+        array[position] = ']';
+        return array;
+    }
+}
@@ -0,0 +1,25 @@
+package com.testpayments.transacitonservice.service.webhook;
+
+import com.testpayments.transacitonservice.entity.WebhookProtocol;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One outgoing webhook call: the serialized payload, sent to the notification url over the merchant's
+ * protocol and signed with the merchant's current signing keys.
+ */
+@Getter
+@AllArgsConstructor
+public class WebhookRequest {
+
+    private final String notificationUrl;
+    private final byte[] payload;
+    private final WebhookProtocol protocol;
+    private final List<WebhookSigningKey> signingKeys;
+
+    public static WebhookRequest of(String notificationUrl, byte[] payload, WebhookMerchantSettings settings) {
+        return new WebhookRequest(notificationUrl, payload, settings.getProtocol(), settings.getSigningKeys());
+    }
+}
@@ -0,0 +1,45 @@
+package com.testpayments.transacitonservice.service.webhook;
+
+import com.testpayments.transacitonservice.config.WebhookDeliveryProperties;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timing wheel that wakes the delivery poller when a short retry becomes due, so a retry
+ * scheduled seconds ahead does not wait for the idle poll backoff. Only wake-ups are kept here;
+ * the retry itself lives in {@code webhook_deliveries.next_attempt_at}, and retries beyond
+ * {@code webhook.delivery.max-idle-delay} are left to regular polling.
+ */
+@Component
+public class WebhookRetryWheel implements DisposableBean {
+
+    private final HashedWheelTimer timer = new HashedWheelTimer(new DefaultThreadFactory("webhook-retry-wheel", true),
+            100, TimeUnit.MILLISECONDS);
+    private final Duration horizon;
+    private volatile Runnable onDue = () -> {
+    };
+
+    public WebhookRetryWheel(WebhookDeliveryProperties webhookDeliveryProperties) {
+        this.horizon = webhookDeliveryProperties.getMaxIdleDelay();
+    }
+
+    public void onDue(Runnable listener) {
+        this.onDue = listener;
+    }
+
+    public void schedule(Duration delay) {
+        if (delay.compareTo(horizon) < 0) {
+            timer.newTimeout(timeout -> onDue.run(), delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        timer.stop();
+    }
+}
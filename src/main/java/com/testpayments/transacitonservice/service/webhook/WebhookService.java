@@ -1,14 +1,19 @@
 package com.testpayments.transacitonservice.service.webhook;
 
-import com.testpayments.transacitonservice.entity.Status;
 import com.testpayments.transacitonservice.entity.Webhook;
+import com.testpayments.transacitonservice.entity.WebhookDelivery;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.UUID;
 
 public interface WebhookService {
 
-    Mono<Webhook> save(Webhook webhook);
-    Mono<String> sendWebhook(Webhook webhook);
-    Mono<Integer> findMaxAttemptCountByTransactionId(UUID transactionId);
+    Mono<Void> recordAttempt(Webhook webhook);
+    Mono<String> sendWebhook(WebhookRequest request);
+    Mono<Void> enqueueDeliveries(List<UUID> transactionIds);
+    Flux<WebhookDelivery> claimDueDeliveries(String claimedBy, Duration lease, int limit);
+    Mono<WebhookDelivery> updateDelivery(WebhookDelivery delivery);
 }
@@ -1,41 +1,83 @@
 package com.testpayments.transacitonservice.service.webhook;
 
 import com.testpayments.transacitonservice.entity.Webhook;
-import com.testpayments.transacitonservice.repository.WebhookRepository;
+import com.testpayments.transacitonservice.entity.WebhookDelivery;
+import com.testpayments.transacitonservice.repository.WebhookDeliveryRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.StringJoiner;
 import java.util.UUID;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class WebhookServiceImpl implements WebhookService {
 
-    private final WebhookRepository webhookRepository;
-    private final WebClient.Builder webClientBuilder;
+    public static final String SIGNATURE_HEADER = "X-Webhook-Signature";
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final WebhookDeliveryRepository webhookDeliveryRepository;
+    private final WebhookClients webhookClients;
+    private final WebhookEndpointGuard webhookEndpointGuard;
+    private final WebhookAttemptWriter webhookAttemptWriter;
 
     @Override
-    public Mono<Webhook> save(Webhook webhook) {
-        return webhookRepository.save(webhook);
+    public Mono<Void> recordAttempt(Webhook webhook) {
+        return webhookAttemptWriter.write(webhook);
     }
 
     //todo для этого метода нет юнит тестов
     @Override
-    public Mono<String> sendWebhook(Webhook webhook) {
-        return webClientBuilder.build()
+    public Mono<String> sendWebhook(WebhookRequest webhookRequest) {
+        byte[] payload = webhookRequest.getPayload();
+        WebClient.RequestBodySpec request = webhookClients.forProtocol(webhookRequest.getProtocol())
                 .post()
-                .uri(webhook.getNotificationUrl())
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(webhook.getRequestBody())
+                .uri(webhookRequest.getNotificationUrl())
+                .contentType(MediaType.APPLICATION_JSON);
+        if (!webhookRequest.getSigningKeys().isEmpty()) {
+            request.header(SIGNATURE_HEADER, signature(payload, webhookRequest.getSigningKeys()));
+        }
+        return webhookEndpointGuard.protect(webhookRequest.getNotificationUrl(), request
+                .bodyValue(payload)
                 .retrieve()
-                .bodyToMono(String.class);
+                .bodyToMono(String.class));
     }
 
     @Override
-    public Mono<Integer> findMaxAttemptCountByTransactionId(UUID transactionId) {
-        return webhookRepository.findMaxAttemptCountByTransactionId(transactionId);
+    public Mono<Void> enqueueDeliveries(List<UUID> transactionIds) {
+        return webhookDeliveryRepository.enqueue(transactionIds.toArray(UUID[]::new))
+                .then();
+    }
+
+    @Override
+    public Flux<WebhookDelivery> claimDueDeliveries(String claimedBy, Duration lease, int limit) {
+        return webhookDeliveryRepository.claimDue(claimedBy, lease.toSeconds(), limit);
+    }
+
+    // Only the node that still holds the claim may write the outcome, so an attempt that outlived its
+    // lease cannot overwrite the result of the node that re-claimed the row.
+    @Override
+    public Mono<WebhookDelivery> updateDelivery(WebhookDelivery delivery) {
+        return webhookDeliveryRepository.updateClaimed(delivery.getId(), delivery.getDeliveryStatus(), delivery.getAttemptCount(),
+                        delivery.getNextAttemptAt(), delivery.getClaimedBy())
+                .switchIfEmpty(Mono.fromRunnable(() -> log.warn("Webhook delivery {} was not updated, its claim by {} has expired",
+                        delivery.getId(), delivery.getClaimedBy())));
+    }
+
+    private static String signature(byte[] payload, List<WebhookSigningKey> signingKeys) {
+        StringJoiner signature = new StringJoiner(",");
+        for (WebhookSigningKey signingKey : signingKeys) {
+            signature.add("sha256=" + HEX.formatHex(signingKey.sign(payload)));
+        }
+        return signature.toString();
     }
 }
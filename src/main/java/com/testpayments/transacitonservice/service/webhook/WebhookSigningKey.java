@@ -0,0 +1,42 @@
+package com.testpayments.transacitonservice.service.webhook;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * HMAC-SHA256 signing key of a merchant. Every thread keeps one {@link Mac} shared by all keys and
+ * re-initializes it with the key per signature, so signing never looks the algorithm up and keys
+ * rebuilt on every settings reload leave nothing behind in the threads that used them.
+ */
+public class WebhookSigningKey {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(WebhookSigningKey::newMac);
+
+    private final SecretKeySpec keySpec;
+
+    public WebhookSigningKey(String secret) {
+        this.keySpec = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    public byte[] sign(byte[] payload) {
+        Mac mac = MAC.get();
+        try {
+            mac.init(keySpec);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Webhook signing key could not be initialized", e);
+        }
+        return mac.doFinal(payload);
+    }
+
+    private static Mac newMac() {
+        try {
+            return Mac.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Algorithm " + ALGORITHM + " is not available", e);
+        }
+    }
+}
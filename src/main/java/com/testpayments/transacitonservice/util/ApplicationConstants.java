@@ -5,4 +5,7 @@ import lombok.experimental.UtilityClass;
 @UtilityClass
 public class ApplicationConstants {
     public final String MERCHANT_ID_KEY = "merchantId";
+    public final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public final String WINDOW_START_HEADER = "X-Window-Start";
+    public final String WINDOW_END_HEADER = "X-Window-End";
 }
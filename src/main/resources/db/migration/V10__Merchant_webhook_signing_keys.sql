@@ -0,0 +1,4 @@
+ALTER TABLE merchants
+ADD COLUMN webhook_signing_key VARCHAR(255),
+ADD COLUMN webhook_previous_signing_key VARCHAR(255),
+ADD COLUMN webhook_signing_key_rotated_at TIMESTAMP;
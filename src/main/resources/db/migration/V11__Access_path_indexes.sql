@@ -0,0 +1,3 @@
+CREATE INDEX idx_transactions_account_type_created_at ON transactions (account_id, type, created_at, id);
+
+CREATE INDEX idx_accounts_merchant_currency ON accounts (merchant_id, currency);
@@ -0,0 +1,116 @@
+CREATE SCHEMA IF NOT EXISTS archive;
+
+ALTER TABLE webhooks
+DROP CONSTRAINT webhooks_transaction_id_fkey;
+
+ALTER TABLE webhook_deliveries
+DROP CONSTRAINT webhook_deliveries_transaction_id_fkey;
+
+ALTER TABLE webhook_deliveries
+ADD COLUMN transaction_created_at TIMESTAMP;
+
+UPDATE webhook_deliveries d
+SET transaction_created_at = t.created_at
+FROM transactions t
+WHERE t.id = d.transaction_id;
+
+ALTER TABLE webhook_deliveries
+ALTER COLUMN transaction_created_at SET NOT NULL;
+
+create FUNCTION create_monthly_partitions(parent TEXT, prefix TEXT, first_month TIMESTAMP, last_month TIMESTAMP) RETURNS VOID AS
+$$
+DECLARE
+    month_start TIMESTAMP := date_trunc('month', first_month);
+BEGIN
+    WHILE month_start <= last_month
+        LOOP
+            EXECUTE format('create TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           prefix || to_char(month_start, '"_y"YYYY"m"MM'), parent,
+                           month_start, month_start + INTERVAL '1 month');
+            month_start := month_start + INTERVAL '1 month';
+        END LOOP;
+END
+$$ LANGUAGE plpgsql;
+
+create TABLE transactions_partitioned
+(
+    id               UUID          NOT NULL DEFAULT uuid_generate_v4(),
+    created_at       TIMESTAMP     NOT NULL,
+    updated_at       TIMESTAMP     NOT NULL,
+    currency         VARCHAR(16)   NOT NULL,
+    amount           DECIMAL       NOT NULL,
+    notification_url VARCHAR(1028) NOT NULL,
+    language         VARCHAR(32)   NOT NULL,
+    status           VARCHAR(64)   NOT NULL,
+    type             VARCHAR(64)   NOT NULL,
+    card_id          UUID REFERENCES cards (id),
+    account_id       UUID REFERENCES accounts (id),
+    claimed_by       VARCHAR(128),
+    claimed_until    TIMESTAMP
+) PARTITION BY RANGE (created_at);
+
+SELECT create_monthly_partitions('transactions_partitioned', 'transactions',
+                                 LEAST(LOCALTIMESTAMP, (SELECT min(created_at) FROM transactions)),
+                                 date_trunc('month', LOCALTIMESTAMP) + INTERVAL '3 months');
+
+create TABLE transactions_default PARTITION OF transactions_partitioned DEFAULT;
+
+INSERT INTO transactions_partitioned (id, created_at, updated_at, currency, amount, notification_url, language, status, type,
+                                      card_id, account_id, claimed_by, claimed_until)
+SELECT id, created_at, updated_at, currency, amount, notification_url, language, status, type,
+       card_id, account_id, claimed_by, claimed_until
+FROM transactions;
+
+create TABLE webhooks_partitioned
+(
+    id               UUID          NOT NULL DEFAULT uuid_generate_v4(),
+    response_status  VARCHAR(64),
+    status           VARCHAR(64)   NOT NULL,
+    response_body    VARCHAR(2048),
+    request_body     VARCHAR(2048),
+    notification_url VARCHAR(1028) NOT NULL,
+    attempt_amount   INT           NOT NULL,
+    transaction_id   UUID,
+    created_at       TIMESTAMP     NOT NULL DEFAULT LOCALTIMESTAMP
+) PARTITION BY RANGE (created_at);
+
+create TEMPORARY TABLE webhook_attempt_times AS
+SELECT w.id, COALESCE(t.updated_at, LOCALTIMESTAMP) AS created_at
+FROM webhooks w
+LEFT JOIN transactions t ON t.id = w.transaction_id;
+
+SELECT create_monthly_partitions('webhooks_partitioned', 'webhooks',
+                                 LEAST(LOCALTIMESTAMP, (SELECT min(created_at) FROM webhook_attempt_times)),
+                                 date_trunc('month', LOCALTIMESTAMP) + INTERVAL '3 months');
+
+create TABLE webhooks_default PARTITION OF webhooks_partitioned DEFAULT;
+
+INSERT INTO webhooks_partitioned (id, response_status, status, response_body, request_body, notification_url, attempt_amount,
+                                  transaction_id, created_at)
+SELECT w.id, w.response_status, w.status, w.response_body, w.request_body, w.notification_url, w.attempt_amount,
+       w.transaction_id, a.created_at
+FROM webhooks w
+JOIN webhook_attempt_times a ON a.id = w.id;
+
+DROP TABLE webhook_attempt_times;
+DROP TABLE webhooks;
+DROP TABLE transactions;
+DROP FUNCTION create_monthly_partitions(TEXT, TEXT, TIMESTAMP, TIMESTAMP);
+
+ALTER TABLE transactions_partitioned
+RENAME TO transactions;
+
+ALTER TABLE transactions
+ADD PRIMARY KEY (id, created_at);
+
+CREATE INDEX idx_transactions_in_process ON transactions (created_at) WHERE status = 'IN_PROCESS';
+
+CREATE INDEX idx_transactions_account_type_created_at ON transactions (account_id, type, created_at, id);
+
+ALTER TABLE webhooks_partitioned
+RENAME TO webhooks;
+
+ALTER TABLE webhooks
+ADD PRIMARY KEY (id, created_at);
+
+CREATE INDEX idx_webhooks_transaction_id ON webhooks (transaction_id);
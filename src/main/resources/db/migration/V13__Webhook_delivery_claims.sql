@@ -0,0 +1,3 @@
+ALTER TABLE webhook_deliveries
+ADD COLUMN claimed_by VARCHAR(128),
+ADD COLUMN claimed_until TIMESTAMP;
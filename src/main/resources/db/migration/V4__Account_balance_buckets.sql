@@ -0,0 +1,10 @@
+ALTER TABLE accounts
+ADD COLUMN balance_buckets INT NOT NULL DEFAULT 1;
+
+create TABLE account_balance_buckets
+(
+    account_id UUID    NOT NULL REFERENCES accounts (id) ON DELETE CASCADE,
+    bucket     INT     NOT NULL,
+    balance    DECIMAL NOT NULL DEFAULT 0,
+    PRIMARY KEY (account_id, bucket)
+);
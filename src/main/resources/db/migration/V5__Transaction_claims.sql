@@ -0,0 +1,5 @@
+ALTER TABLE transactions
+ADD COLUMN claimed_by VARCHAR(128),
+ADD COLUMN claimed_until TIMESTAMP;
+
+CREATE INDEX idx_transactions_in_process ON transactions (created_at) WHERE status = 'IN_PROCESS';
@@ -0,0 +1,14 @@
+create TABLE webhook_deliveries
+(
+    id               UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    transaction_id   UUID          NOT NULL REFERENCES transactions (id),
+    notification_url VARCHAR(1028) NOT NULL,
+    delivery_status  VARCHAR(64)   NOT NULL,
+    attempt_count    INT           NOT NULL DEFAULT 0,
+    next_attempt_at  TIMESTAMP     NOT NULL,
+    created_at       TIMESTAMP     NOT NULL,
+    updated_at       TIMESTAMP     NOT NULL,
+    CONSTRAINT unique_webhook_delivery_transaction UNIQUE (transaction_id)
+);
+
+CREATE INDEX idx_webhook_deliveries_next_attempt ON webhook_deliveries (next_attempt_at) WHERE delivery_status = 'PENDING';
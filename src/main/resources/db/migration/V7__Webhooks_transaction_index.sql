@@ -0,0 +1 @@
+CREATE INDEX idx_webhooks_transaction_id ON webhooks (transaction_id);
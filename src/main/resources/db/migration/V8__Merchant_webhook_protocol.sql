@@ -0,0 +1,5 @@
+ALTER TABLE merchants
+ADD COLUMN webhook_protocol VARCHAR(16) NOT NULL DEFAULT 'HTTP1';
+
+ALTER TABLE webhook_deliveries
+ADD COLUMN merchant_id UUID REFERENCES merchants (id);
@@ -0,0 +1,2 @@
+ALTER TABLE merchants
+ADD COLUMN webhook_batching BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,230 @@
+package com.testpayments.transacitonservice.integrationTest;
+
+import com.testpayments.transacitonservice.dto.CustomerDataDto;
+import com.testpayments.transacitonservice.dto.TopUpCardDataDto;
+import com.testpayments.transacitonservice.dto.TopUpRequest;
+import com.testpayments.transacitonservice.dto.WithdrawalRequest;
+import com.testpayments.transacitonservice.entity.Account;
+import com.testpayments.transacitonservice.entity.Card;
+import com.testpayments.transacitonservice.entity.Customer;
+import com.testpayments.transacitonservice.entity.Merchant;
+import com.testpayments.transacitonservice.exception.InsufficientFundsException;
+import com.testpayments.transacitonservice.repository.AccountRepository;
+import com.testpayments.transacitonservice.repository.CardRepository;
+import com.testpayments.transacitonservice.repository.CustomerRepository;
+import com.testpayments.transacitonservice.repository.MerchantRepository;
+import com.testpayments.transacitonservice.repository.TransactionRepository;
+import com.testpayments.transacitonservice.repository.WebhookDeliveryRepository;
+import com.testpayments.transacitonservice.repository.WebhookRepository;
+import com.testpayments.transacitonservice.service.AccountService;
+import com.testpayments.transacitonservice.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs concurrent balance changes of one hot account or card against the real database, where striped
+ * credits and the sweeps folding them into the account have to add up exactly under row contention and
+ * conditional debits must never take a balance below zero.
+ */
+public class BalanceConcurrencyIntegrationTest extends AbstractIntegrationTest {
+
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+    private static final int BALANCE_BUCKETS = 8;
+    private static final int CONCURRENT_CREDITS = 200;
+    private static final int SWEEP_EVERY = 20;
+    private static final int DEBIT_AMOUNT = 100;
+    private static final int CONCURRENT_DEBITS = 20;
+    private static final BigDecimal BUCKETED_CREDITS = new BigDecimal("500");
+    private static final String CARD_NUMBER = "4111111111111111";
+
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private MerchantRepository merchantRepository;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private WebhookRepository webhookRepository;
+    @Autowired
+    private WebhookDeliveryRepository webhookDeliveryRepository;
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private Account account;
+    private Card card;
+
+    @BeforeEach
+    void beforeEach() {
+        Merchant merchant = merchantRepository.save(Merchant.builder()
+                        .secretKey("secret")
+                        .companyRecognition("Company")
+                        .country("USA")
+                        .build())
+                .block();
+
+        account = accountRepository.save(Account.builder()
+                        .currency("USD")
+                        .balance(INITIAL_BALANCE)
+                        .merchantId(merchant.getId())
+                        .balanceBuckets(BALANCE_BUCKETS)
+                        .build())
+                .block();
+
+        Customer customer = customerRepository.save(Customer.builder()
+                        .firstName("John")
+                        .lastName("Doe")
+                        .country("USA")
+                        .build())
+                .block();
+
+        card = cardRepository.save(Card.builder()
+                        .cardNumber(CARD_NUMBER)
+                        .expDate(LocalDateTime.now().plusYears(3))
+                        .cvv("123")
+                        .currency("USD")
+                        .balance(INITIAL_BALANCE)
+                        .customerId(customer.getId())
+                        .build())
+                .block();
+    }
+
+    @AfterEach
+    void afterEach() {
+        webhookRepository.deleteAll().block();
+        webhookDeliveryRepository.deleteAll().block();
+        transactionRepository.deleteAll().block();
+        cardRepository.deleteAll().block();
+        accountRepository.deleteAll().block();
+        customerRepository.deleteAll().block();
+        merchantRepository.deleteAll().block();
+    }
+
+    @Test
+    void creditAccount_concurrentCreditsAddUpAfterSweep() {
+        Flux.range(0, CONCURRENT_CREDITS)
+                .flatMap(i -> Mono.when(
+                        accountService.creditAccount(account.getId(), BigDecimal.ONE, UUID.randomUUID()),
+                        i % SWEEP_EVERY == 0 ? accountRepository.sweepBalanceBuckets(account.getId()) : Mono.empty()))
+                .then(accountRepository.sweepBalanceBuckets(account.getId()))
+                .as(StepVerifier::create)
+                .expectNextCount(1)
+                .verifyComplete();
+
+        accountRepository.findById(account.getId())
+                .as(StepVerifier::create)
+                .consumeNextWith(sweptAccount -> assertEquals(0,
+                        INITIAL_BALANCE.add(new BigDecimal(CONCURRENT_CREDITS)).compareTo(sweptAccount.getBalance())))
+                .verifyComplete();
+
+        countBuckets("TRUE")
+                .as(StepVerifier::create)
+                .consumeNextWith(buckets -> assertTrue(buckets > 1, "Credits were not spread over the balance buckets"))
+                .verifyComplete();
+
+        // The sweep zeroes the bucket rows rather than deleting them, so the next credit of a stripe
+        // updates its row instead of racing other credits to insert it again.
+        countBuckets("balance <> 0")
+                .as(StepVerifier::create)
+                .expectNext(0L)
+                .verifyComplete();
+    }
+
+    @Test
+    void updateAccountBalance_concurrentDebitsNeverOverdrawAccount() {
+        // Part of the balance sits in the buckets, so losing debits sweep concurrently before giving up.
+        Flux.range(0, BUCKETED_CREDITS.intValue() / DEBIT_AMOUNT)
+                .flatMap(i -> accountService.creditAccount(account.getId(), new BigDecimal(DEBIT_AMOUNT), UUID.randomUUID()))
+                .then()
+                .block();
+        WithdrawalRequest withdrawalRequest = WithdrawalRequest.builder()
+                .amount(DEBIT_AMOUNT)
+                .currency("USD")
+                .build();
+
+        List<Boolean> outcomes = Flux.range(0, CONCURRENT_DEBITS)
+                .flatMap(i -> accountService.updateAccountBalance(account, withdrawalRequest)
+                        .map(debitedAccount -> true)
+                        .onErrorResume(InsufficientFundsException.class, e -> Mono.just(false)))
+                .collectList()
+                .block();
+
+        int affordableDebits = INITIAL_BALANCE.add(BUCKETED_CREDITS).intValue() / DEBIT_AMOUNT;
+        assertEquals(affordableDebits, outcomes.stream().filter(debited -> debited).count());
+        assertEquals(CONCURRENT_DEBITS - affordableDebits, outcomes.stream().filter(debited -> !debited).count());
+
+        accountRepository.findAccountWithTotalBalanceById(account.getId())
+                .as(StepVerifier::create)
+                .consumeNextWith(debitedAccount -> assertEquals(0, BigDecimal.ZERO.compareTo(debitedAccount.getBalance())))
+                .verifyComplete();
+        countBuckets("balance < 0")
+                .as(StepVerifier::create)
+                .expectNext(0L)
+                .verifyComplete();
+    }
+
+    @Test
+    void topUp_concurrentDebitsNeverOverdrawCard() {
+        TopUpRequest topUpRequest = TopUpRequest.builder()
+                .paymentMethod("CARD")
+                .amount(DEBIT_AMOUNT)
+                .currency("USD")
+                .language("en")
+                .notificationUrl("https://bla")
+                .customerDataDto(CustomerDataDto.builder()
+                        .firstName("John")
+                        .lastName("Doe")
+                        .country("USA")
+                        .build())
+                .topUpCardDataDto(TopUpCardDataDto.builder()
+                        .cardNumber(CARD_NUMBER)
+                        .expDate("12/23")
+                        .svv("123")
+                        .build())
+                .build();
+
+        List<Boolean> outcomes = Flux.range(0, CONCURRENT_DEBITS)
+                .flatMap(i -> transactionService.topUp(topUpRequest, account.getMerchantId())
+                        .map(paymentResponse -> true)
+                        .onErrorResume(InsufficientFundsException.class, e -> Mono.just(false)))
+                .collectList()
+                .block();
+
+        int affordableDebits = INITIAL_BALANCE.intValue() / DEBIT_AMOUNT;
+        assertEquals(affordableDebits, outcomes.stream().filter(debited -> debited).count());
+        assertEquals(CONCURRENT_DEBITS - affordableDebits, outcomes.stream().filter(debited -> !debited).count());
+
+        cardRepository.findById(card.getId())
+                .as(StepVerifier::create)
+                .consumeNextWith(debitedCard -> assertEquals(0, BigDecimal.ZERO.compareTo(debitedCard.getBalance())))
+                .verifyComplete();
+    }
+
+    private Mono<Long> countBuckets(String condition) {
+        return databaseClient.sql("SELECT count(*) AS buckets FROM account_balance_buckets WHERE account_id = :accountId AND " + condition)
+                .bind("accountId", account.getId())
+                .map(row -> row.get("buckets", Long.class))
+                .one();
+    }
+}
@@ -16,7 +16,9 @@ import com.testpayments.transacitonservice.repository.CardRepository;
 import com.testpayments.transacitonservice.repository.CustomerRepository;
 import com.testpayments.transacitonservice.repository.MerchantRepository;
 import com.testpayments.transacitonservice.repository.TransactionRepository;
+import com.testpayments.transacitonservice.repository.WebhookDeliveryRepository;
 import com.testpayments.transacitonservice.repository.WebhookRepository;
+import com.testpayments.transacitonservice.util.ApplicationConstants;
 import com.testpayments.transacitonservice.util.PaymentOperationConstant;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -57,6 +59,8 @@ public class PayOutControllerV1IntegrationTest extends AbstractIntegrationTest {
     private MerchantRepository merchantRepository;
     @Autowired
     private WebhookRepository webhookRepository;
+    @Autowired
+    private WebhookDeliveryRepository webhookDeliveryRepository;
 
     private UUID merchantId;
 
@@ -99,6 +103,7 @@ public class PayOutControllerV1IntegrationTest extends AbstractIntegrationTest {
     @AfterEach
     void afterEach() {
         webhookRepository.deleteAll().block();
+        webhookDeliveryRepository.deleteAll().block();
         transactionRepository.deleteAll().block();
         cardRepository.deleteAll().block();
         accountRepository.deleteAll().block();
@@ -234,7 +239,7 @@ public class PayOutControllerV1IntegrationTest extends AbstractIntegrationTest {
     }
 
     @Test
-    void getPayOutTransactions_400() {
+    void getPayOutTransactions_emptyWindow() {
         String base64Credentials = Base64.getEncoder().encodeToString((merchantId + ":" + MERCHANT_SECRET_KEY)
                 .getBytes(StandardCharsets.UTF_8));
 
@@ -243,7 +248,11 @@ public class PayOutControllerV1IntegrationTest extends AbstractIntegrationTest {
                 .uri(PaymentOperationConstant.ROOT_URL + "/payout/list")
                 .header("Authorization", "Basic " + base64Credentials)
                 .exchange()
-                .expectStatus().isNotFound();
+                .expectStatus().isOk()
+                .expectHeader().exists(ApplicationConstants.WINDOW_START_HEADER)
+                .expectHeader().exists(ApplicationConstants.WINDOW_END_HEADER)
+                .expectBodyList(TransactionResponse.class)
+                .hasSize(0);
     }
 
     @Test
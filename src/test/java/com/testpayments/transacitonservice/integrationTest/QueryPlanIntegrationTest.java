@@ -0,0 +1,127 @@
+package com.testpayments.transacitonservice.integrationTest;
+
+import com.testpayments.transacitonservice.repository.PartitionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the indexes behind the hot repository queries: seeds a realistic data set, refreshes the
+ * statistics and checks that the planner picks the expected index. Everything runs in one
+ * transaction that is rolled back, so the seeded rows never reach other tests. Indexes of the
+ * partitioned tables are matched by the names Postgres gives to their per-partition copies.
+ */
+public class QueryPlanIntegrationTest extends AbstractIntegrationTest {
+
+    private static final List<String> SEED = List.of(
+            "INSERT INTO merchants (secret_key, created_at, company_recognition, country) " +
+                    "SELECT 'secret', LOCALTIMESTAMP, 'Plan merchant ' || g, 'USA' FROM generate_series(1, 2000) g",
+            "INSERT INTO accounts (currency, balance, merchant_id) " +
+                    "SELECT c.currency, 0, m.id FROM merchants m CROSS JOIN (VALUES ('USD'), ('EUR')) AS c(currency) " +
+                    "WHERE m.company_recognition LIKE 'Plan merchant %'",
+            "INSERT INTO customers (first_name, last_name, country) " +
+                    "SELECT 'Plan', 'Customer ' || g, 'USA' FROM generate_series(1, 1000) g",
+            "INSERT INTO cards (card_number, exp_date, cvv, currency, balance, customer_id) " +
+                    "SELECT lpad(row_number() OVER ()::text, 16, '9'), LOCALTIMESTAMP + interval '1 year', '123', 'USD', 0, id " +
+                    "FROM customers WHERE first_name = 'Plan'",
+            "INSERT INTO transactions (created_at, updated_at, currency, amount, notification_url, language, status, type, card_id, account_id) " +
+                    "SELECT LOCALTIMESTAMP - make_interval(mins => g), LOCALTIMESTAMP, 'USD', 100, 'https://merchant.example/webhook', 'en', " +
+                    "CASE WHEN g % 100 = 0 THEN 'IN_PROCESS' ELSE 'APPROVED' END, " +
+                    "CASE WHEN g % 2 = 0 THEN 'TOP_UP' ELSE 'PAY_OUT' END, " +
+                    "card.ids[1 + g % array_length(card.ids, 1)], account.ids[1 + g % array_length(account.ids, 1)] " +
+                    "FROM generate_series(1, 50000) g, " +
+                    "(SELECT array_agg(id) AS ids FROM cards WHERE card_number LIKE '9%') AS card, " +
+                    "(SELECT array_agg(a.id) AS ids FROM accounts a JOIN merchants m ON m.id = a.merchant_id " +
+                    "WHERE m.company_recognition LIKE 'Plan merchant %') AS account",
+            "INSERT INTO webhooks (response_status, status, notification_url, attempt_amount, transaction_id) " +
+                    "SELECT 'SUCCESSFUL', status, notification_url, 1, id FROM transactions",
+            "ANALYZE merchants, accounts, customers, cards, transactions, webhooks");
+
+    private static final String PLAN_MERCHANT = "(SELECT id FROM merchants WHERE company_recognition = 'Plan merchant 1')";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Test
+    void transactionList_usesAccountTypeCreatedAtIndex() {
+        String plan = planOf("""
+                SELECT t.id, t.amount, t.currency, t.created_at, t.updated_at, t.notification_url, t.language,
+                       c.card_number, cu.first_name, cu.last_name, cu.country
+                FROM transactions t
+                JOIN accounts a ON a.id = t.account_id
+                JOIN cards c ON c.id = t.card_id
+                JOIN customers cu ON cu.id = c.customer_id
+                WHERE a.merchant_id = %s AND t.type = 'TOP_UP'
+                AND t.created_at >= LOCALTIMESTAMP - interval '30 days' AND t.created_at <= LOCALTIMESTAMP
+                ORDER BY t.created_at, t.id
+                LIMIT 11
+                """.formatted(PLAN_MERCHANT));
+
+        assertThat(plan).contains("account_id_type_created_at_id_idx");
+    }
+
+    @Test
+    void transactionList_scansOnlyPartitionsOfRequestedRange() {
+        YearMonth currentMonth = YearMonth.now();
+        String plan = planOf("SELECT id FROM transactions WHERE created_at >= date_trunc('month', LOCALTIMESTAMP) " +
+                "AND created_at < date_trunc('month', LOCALTIMESTAMP) + interval '1 month'");
+
+        assertThat(plan).contains(PartitionRepository.partitionName("transactions", currentMonth))
+                .doesNotContain(PartitionRepository.partitionName("transactions", currentMonth.plusMonths(1)))
+                .doesNotContain("transactions_default");
+    }
+
+    @Test
+    void accountByMerchantAndCurrency_usesMerchantCurrencyIndex() {
+        String plan = planOf("SELECT * FROM accounts WHERE merchant_id = " + PLAN_MERCHANT + " AND currency = 'USD'");
+
+        assertThat(plan).contains("idx_accounts_merchant_currency");
+    }
+
+    @Test
+    void accountsByMerchant_usesMerchantCurrencyIndex() {
+        String plan = planOf("SELECT * FROM accounts WHERE merchant_id = " + PLAN_MERCHANT);
+
+        assertThat(plan).contains("idx_accounts_merchant_currency");
+    }
+
+    @Test
+    void inProcessTransactions_usePartialIndex() {
+        String plan = planOf("SELECT * FROM transactions WHERE status = 'IN_PROCESS' ORDER BY created_at LIMIT 500");
+
+        assertThat(plan).containsPattern("transactions_\\w+_created_at_idx");
+    }
+
+    @Test
+    void webhooksByTransaction_useTransactionIdIndex() {
+        String plan = planOf("SELECT * FROM webhooks WHERE transaction_id = (SELECT transaction_id FROM webhooks LIMIT 1)");
+
+        assertThat(plan).containsPattern("webhooks_\\w+_transaction_id_idx");
+    }
+
+    private String planOf(String query) {
+        return transactionalOperator.execute(status -> {
+                    status.setRollbackOnly();
+                    return Flux.fromIterable(SEED)
+                            .concatMap(statement -> databaseClient.sql(statement).then())
+                            .then(databaseClient.sql("EXPLAIN " + query)
+                                    .map(row -> row.get(0, String.class))
+                                    .all()
+                                    .collect(Collectors.joining("\n")));
+                })
+                .next()
+                .switchIfEmpty(Mono.error(new IllegalStateException("No plan returned")))
+                .block();
+    }
+}
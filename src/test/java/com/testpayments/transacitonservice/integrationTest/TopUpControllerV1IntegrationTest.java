@@ -17,7 +17,9 @@ import com.testpayments.transacitonservice.repository.CardRepository;
 import com.testpayments.transacitonservice.repository.CustomerRepository;
 import com.testpayments.transacitonservice.repository.MerchantRepository;
 import com.testpayments.transacitonservice.repository.TransactionRepository;
+import com.testpayments.transacitonservice.repository.WebhookDeliveryRepository;
 import com.testpayments.transacitonservice.repository.WebhookRepository;
+import com.testpayments.transacitonservice.util.ApplicationConstants;
 import com.testpayments.transacitonservice.util.PaymentOperationConstant;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -30,6 +32,7 @@ import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.List;
@@ -37,6 +40,7 @@ import java.util.Objects;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -59,6 +63,8 @@ public class TopUpControllerV1IntegrationTest extends AbstractIntegrationTest {
     private MerchantRepository merchantRepository;
     @Autowired
     private WebhookRepository webhookRepository;
+    @Autowired
+    private WebhookDeliveryRepository webhookDeliveryRepository;
 
     private UUID merchantId;
 
@@ -101,6 +107,7 @@ public class TopUpControllerV1IntegrationTest extends AbstractIntegrationTest {
     @AfterEach
     void afterEach() {
         webhookRepository.deleteAll().block();
+        webhookDeliveryRepository.deleteAll().block();
         transactionRepository.deleteAll().block();
         cardRepository.deleteAll().block();
         accountRepository.deleteAll().block();
@@ -250,25 +257,103 @@ public class TopUpControllerV1IntegrationTest extends AbstractIntegrationTest {
     }
 
     @Test
-    void getTopUpTransactions_404() {
+    void getTopUpTransactions_pagesWithCursor() {
+        TopUpRequest request = TopUpRequest.builder()
+                .paymentMethod("CARD")
+                .amount(100)
+                .currency("USD")
+                .language("en")
+                .notificationUrl("https://bla")
+                .customerDataDto(CustomerDataDto.builder()
+                        .firstName("John")
+                        .lastName("Doe")
+                        .country("USA")
+                        .build())
+                .topUpCardDataDto(TopUpCardDataDto.builder()
+                        .cardNumber("4111111111111111")
+                        .expDate("12/23")
+                        .svv("123")
+                        .build())
+                .build();
+
         String base64Credentials = Base64.getEncoder().encodeToString((merchantId + ":" + MERCHANT_SECRET_KEY)
                 .getBytes(StandardCharsets.UTF_8));
 
+        for (int i = 0; i < 2; i++) {
+            webTestClient
+                    .post()
+                    .uri(PaymentOperationConstant.ROOT_URL + "/deposit")
+                    .header("Authorization", "Basic " + base64Credentials)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(request)
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+
+        long endDate = Instant.now().plusSeconds(3600).getEpochSecond();
+        EntityExchangeResult<List<TransactionResponse>> firstPage = webTestClient
+                .get()
+                .uri(PaymentOperationConstant.ROOT_URL + "/transaction/list?start_date=0&end_date=" + endDate + "&size=1")
+                .header("Authorization", "Basic " + base64Credentials)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TransactionResponse.class)
+                .hasSize(1)
+                .returnResult();
+        String cursor = firstPage.getResponseHeaders().getFirst(ApplicationConstants.NEXT_CURSOR_HEADER);
+        assertNotNull(cursor);
+
         webTestClient
                 .get()
-                .uri(PaymentOperationConstant.ROOT_URL + "/transaction/list")
+                .uri(PaymentOperationConstant.ROOT_URL + "/transaction/list?start_date=0&end_date=" + endDate + "&size=1&cursor=" + cursor)
                 .header("Authorization", "Basic " + base64Credentials)
                 .exchange()
-                .expectStatus().isNotFound()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(ApplicationConstants.NEXT_CURSOR_HEADER)
+                .expectBodyList(TransactionResponse.class)
+                .hasSize(1)
+                .consumeWith(response -> assertNotEquals(firstPage.getResponseBody().get(0).getTransactionId(),
+                        response.getResponseBody().get(0).getTransactionId()));
+    }
+
+    @Test
+    void getTopUpTransactions_400WhenPageSizeExceedsLimit() {
+        String base64Credentials = Base64.getEncoder().encodeToString((merchantId + ":" + MERCHANT_SECRET_KEY)
+                .getBytes(StandardCharsets.UTF_8));
+
+        webTestClient
+                .get()
+                .uri(PaymentOperationConstant.ROOT_URL + "/transaction/list?size=100000")
+                .header("Authorization", "Basic " + base64Credentials)
+                .exchange()
+                .expectStatus().isBadRequest()
                 .expectBody(ErrorResponse.class)
                 .consumeWith(response -> {
                     ErrorResponse errorResponse = response.getResponseBody();
                     assertNotNull(errorResponse);
                     assertEquals("FAILED", errorResponse.getStatus());
-                    assertEquals("PAYMENT_METHOD_NOT_ALLOWED", errorResponse.getMessage());
+                    assertEquals("Page size must be between 1 and 100", errorResponse.getMessage());
                 });
     }
 
+    @Test
+    void getTopUpTransactions_emptyWindow() {
+        String base64Credentials = Base64.getEncoder().encodeToString((merchantId + ":" + MERCHANT_SECRET_KEY)
+                .getBytes(StandardCharsets.UTF_8));
+
+        webTestClient
+                .get()
+                .uri(PaymentOperationConstant.ROOT_URL + "/transaction/list")
+                .header("Authorization", "Basic " + base64Credentials)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(ApplicationConstants.WINDOW_START_HEADER)
+                .expectHeader().exists(ApplicationConstants.WINDOW_END_HEADER)
+                .expectHeader().doesNotExist(ApplicationConstants.NEXT_CURSOR_HEADER)
+                .expectBodyList(TransactionResponse.class)
+                .hasSize(0);
+    }
+
     @Test
     void getTopUpTransactionById_200() {
         TopUpRequest request = TopUpRequest.builder()
@@ -0,0 +1,71 @@
+package com.testpayments.transacitonservice.unitTest;
+
+import com.testpayments.transacitonservice.auth.BasicAuthCredentialsParser;
+import com.testpayments.transacitonservice.auth.MerchantCredentialCache;
+import com.testpayments.transacitonservice.auth.MerchantCredentials;
+import com.testpayments.transacitonservice.exception.UnauthorizedException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BasicAuthCredentialsParserTest {
+
+    private static final UUID MERCHANT_ID = UUID.fromString("b35f70de-d0a5-4c1a-a765-ccb3b6be33ac");
+
+    @Test
+    void parse_validHeader() {
+        MerchantCredentials credentials = BasicAuthCredentialsParser.parse(basic(MERCHANT_ID + ":secretKey"));
+
+        assertThat(credentials.getMerchantId()).isEqualTo(MERCHANT_ID);
+        assertThat(credentials.getSecretHash()).isEqualTo(MerchantCredentialCache.hash("secretKey"));
+    }
+
+    @Test
+    void parse_secretContainingSeparatorAndPadding() {
+        for (String secret : new String[]{"a", "ab", "abc", "se:cr:et"}) {
+            MerchantCredentials credentials = BasicAuthCredentialsParser.parse(basic(MERCHANT_ID + ":" + secret));
+
+            assertThat(credentials.getMerchantId()).isEqualTo(MERCHANT_ID);
+            assertThat(credentials.getSecretHash()).isEqualTo(MerchantCredentialCache.hash(secret));
+        }
+    }
+
+    @Test
+    void parse_caseInsensitiveSchemeAndSurroundingWhitespace() {
+        String header = "basic   " + basic(MERCHANT_ID + ":secretKey").substring("Basic ".length()) + "  ";
+
+        assertThat(BasicAuthCredentialsParser.parse(header).getMerchantId()).isEqualTo(MERCHANT_ID);
+    }
+
+    @Test
+    void parse_throwException() {
+        String[] malformedHeaders = {
+                null,
+                "Bearer token",
+                "Basic",
+                "Basicabc",
+                "Basic abc",
+                "Basic ab=c",
+                "Basic !!!!",
+                basic("not-a-uuid:secretKey"),
+                basic(MERCHANT_ID.toString()),
+                basic(MERCHANT_ID + "secretKey"),
+                basic("b35f70de-d0a5-4c1a-a765-ccb3b6be33az:secretKey"),
+                basic(MERCHANT_ID + ":" + "s".repeat(300))
+        };
+
+        for (String header : malformedHeaders) {
+            assertThatThrownBy(() -> BasicAuthCredentialsParser.parse(header))
+                    .isInstanceOf(UnauthorizedException.class);
+        }
+    }
+
+    private static String basic(String credentials) {
+        return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+}
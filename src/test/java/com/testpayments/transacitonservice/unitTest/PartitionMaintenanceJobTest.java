@@ -0,0 +1,114 @@
+package com.testpayments.transacitonservice.unitTest;
+
+import com.testpayments.transacitonservice.config.PartitionMaintenanceProperties;
+import com.testpayments.transacitonservice.repository.PartitionRepository;
+import com.testpayments.transacitonservice.service.maintenance.PartitionMaintenanceJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.YearMonth;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PartitionMaintenanceJobTest {
+
+    @InjectMocks
+    private PartitionMaintenanceJob partitionMaintenanceJob;
+
+    @Mock
+    private PartitionRepository partitionRepository;
+    @Mock
+    private TransactionalOperator transactionalOperator;
+    @Spy
+    private PartitionMaintenanceProperties partitionMaintenanceProperties = new PartitionMaintenanceProperties();
+
+    private final YearMonth currentMonth = YearMonth.now();
+
+    @BeforeEach
+    void setUp() {
+        partitionMaintenanceProperties.setMonthsAhead(2);
+        partitionMaintenanceProperties.setTransactionsRetentionMonths(0);
+        partitionMaintenanceProperties.setWebhooksRetentionMonths(0);
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0, Mono.class));
+    }
+
+    private void stubMaintenanceLock(boolean acquired) {
+        when(partitionRepository.tryMaintenanceLock()).thenReturn(Mono.just(acquired));
+        if (acquired) {
+            when(partitionRepository.setLockTimeout(partitionMaintenanceProperties.getLockTimeout())).thenReturn(Mono.empty());
+            when(partitionRepository.createMonthlyPartition(anyString(), any())).thenReturn(Mono.empty());
+        }
+    }
+
+    @Test
+    void maintainPartitions_createsCurrentAndUpcomingPartitions() {
+        stubMaintenanceLock(true);
+
+        StepVerifier.create(partitionMaintenanceJob.maintainPartitions())
+                .verifyComplete();
+
+        for (String table : new String[]{"transactions", "webhooks"}) {
+            verify(partitionRepository).createMonthlyPartition(table, currentMonth);
+            verify(partitionRepository).createMonthlyPartition(table, currentMonth.plusMonths(1));
+            verify(partitionRepository).createMonthlyPartition(table, currentMonth.plusMonths(2));
+        }
+        verify(partitionRepository, times(6)).createMonthlyPartition(anyString(), any());
+        verify(partitionRepository, never()).findMonthlyPartitions(anyString());
+    }
+
+    @Test
+    void maintainPartitions_keepsCreatingAfterAFailedPartition() {
+        stubMaintenanceLock(true);
+        when(partitionRepository.createMonthlyPartition("transactions", currentMonth))
+                .thenReturn(Mono.error(new RuntimeException("Database error")));
+
+        StepVerifier.create(partitionMaintenanceJob.maintainPartitions())
+                .verifyComplete();
+
+        verify(partitionRepository).createMonthlyPartition("transactions", currentMonth.plusMonths(2));
+        verify(partitionRepository).createMonthlyPartition("webhooks", currentMonth.plusMonths(2));
+    }
+
+    @Test
+    void maintainPartitions_archivesPartitionsOlderThanRetention() {
+        stubMaintenanceLock(true);
+        partitionMaintenanceProperties.setTransactionsRetentionMonths(12);
+        when(partitionRepository.findMonthlyPartitions("transactions"))
+                .thenReturn(Flux.just(currentMonth.minusMonths(13), currentMonth.minusMonths(12), currentMonth));
+        when(partitionRepository.archiveMonthlyPartition(anyString(), any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(partitionMaintenanceJob.maintainPartitions())
+                .verifyComplete();
+
+        verify(partitionRepository).archiveMonthlyPartition("transactions", currentMonth.minusMonths(13));
+        verify(partitionRepository, times(1)).archiveMonthlyPartition(anyString(), any());
+        verify(partitionRepository, never()).findMonthlyPartitions("webhooks");
+    }
+
+    @Test
+    void maintainPartitions_skipsStepsWhileAnotherNodeHoldsTheLock() {
+        stubMaintenanceLock(false);
+
+        StepVerifier.create(partitionMaintenanceJob.maintainPartitions())
+                .verifyComplete();
+
+        verify(partitionRepository, times(6)).tryMaintenanceLock();
+        verify(partitionRepository, never()).setLockTimeout(any());
+        verify(partitionRepository, never()).createMonthlyPartition(anyString(), any());
+    }
+}
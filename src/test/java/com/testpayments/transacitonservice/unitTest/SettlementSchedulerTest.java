@@ -0,0 +1,84 @@
+package com.testpayments.transacitonservice.unitTest;
+
+import com.testpayments.transacitonservice.config.SettlementProperties;
+import com.testpayments.transacitonservice.service.webhook.SettlementMetrics;
+import com.testpayments.transacitonservice.service.webhook.SettlementScheduler;
+import com.testpayments.transacitonservice.service.webhook.WebhookJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SettlementSchedulerTest {
+
+    @InjectMocks
+    private SettlementScheduler settlementScheduler;
+
+    @Mock
+    private WebhookJob webhookJob;
+    @Mock
+    private SettlementMetrics settlementMetrics;
+    @Spy
+    private SettlementProperties settlementProperties = new SettlementProperties();
+
+    @BeforeEach
+    void setUp() {
+        settlementProperties.setInitialDelay(Duration.ZERO);
+        settlementProperties.setPollInterval(Duration.ofHours(1));
+        settlementProperties.setBatchSize(10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        settlementScheduler.stop();
+    }
+
+    @Test
+    void start_runsNextPassImmediatelyWhileBacklogRemains() {
+        when(webhookJob.assignStatusToTransaction()).thenReturn(Mono.just(10L), Mono.just(3L));
+
+        settlementScheduler.start();
+
+        verify(webhookJob, timeout(1000).times(2)).assignStatusToTransaction();
+        verify(webhookJob, after(200).times(2)).assignStatusToTransaction();
+        verify(settlementMetrics, times(1)).recordPass(any(), eq(10L));
+        verify(settlementMetrics, times(1)).recordPass(any(), eq(3L));
+    }
+
+    @Test
+    void start_doesNotOverlapPasses() {
+        when(webhookJob.assignStatusToTransaction()).thenReturn(Mono.never());
+
+        settlementScheduler.start();
+
+        verify(webhookJob, after(300).times(1)).assignStatusToTransaction();
+        verify(settlementMetrics, never()).recordPass(any(), anyLong());
+    }
+
+    @Test
+    void start_backsOffAfterFailedPass() {
+        when(webhookJob.assignStatusToTransaction()).thenReturn(Mono.error(new RuntimeException("Database error")));
+
+        settlementScheduler.start();
+
+        verify(webhookJob, after(300).times(1)).assignStatusToTransaction();
+    }
+}
@@ -0,0 +1,96 @@
+package com.testpayments.transacitonservice.unitTest;
+
+import com.testpayments.transacitonservice.config.WebhookAttemptWriterProperties;
+import com.testpayments.transacitonservice.entity.Status;
+import com.testpayments.transacitonservice.entity.Webhook;
+import com.testpayments.transacitonservice.entity.WebhookResponseStatus;
+import com.testpayments.transacitonservice.repository.WebhookRepository;
+import com.testpayments.transacitonservice.service.webhook.WebhookAttemptWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class WebhookAttemptWriterTest {
+
+    @InjectMocks
+    private WebhookAttemptWriter webhookAttemptWriter;
+
+    @Mock
+    private WebhookRepository webhookRepository;
+    @Spy
+    private WebhookAttemptWriterProperties properties = new WebhookAttemptWriterProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.setBatchSize(2);
+        properties.setFlushInterval(Duration.ofSeconds(10));
+        webhookAttemptWriter.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        webhookAttemptWriter.stop();
+    }
+
+    @Test
+    void write_flushesFullBatchInOneInsert() {
+        when(webhookRepository.insertAll(any(), any(), any(), any(), any(), any(), any())).thenReturn(Mono.just(2));
+
+        StepVerifier.create(Mono.when(webhookAttemptWriter.write(createWebhook()), webhookAttemptWriter.write(createWebhook())))
+                .verifyComplete();
+
+        verify(webhookRepository, times(1)).insertAll(
+                argThat(responseStatuses -> responseStatuses.length == 2 && responseStatuses[0].equals("SUCCESSFUL")),
+                any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void write_propagatesInsertError() {
+        when(webhookRepository.insertAll(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Mono.error(new RuntimeException("Database error")));
+
+        StepVerifier.create(Mono.when(webhookAttemptWriter.write(createWebhook()), webhookAttemptWriter.write(createWebhook())))
+                .expectError(RuntimeException.class)
+                .verify();
+    }
+
+    @Test
+    void stop_flushesPendingAttempts() {
+        when(webhookRepository.insertAll(any(), any(), any(), any(), any(), any(), any())).thenReturn(Mono.just(1));
+        webhookAttemptWriter.write(createWebhook()).subscribe();
+
+        webhookAttemptWriter.stop();
+
+        verify(webhookRepository, times(1)).insertAll(
+                argThat(responseStatuses -> responseStatuses.length == 1),
+                any(), any(), any(), any(), any(), any());
+    }
+
+    private Webhook createWebhook() {
+        return Webhook.builder()
+                .responseStatus(WebhookResponseStatus.SUCCESSFUL)
+                .status(Status.APPROVED)
+                .requestBody("{}")
+                .notificationUrl("http://localhost/webhook")
+                .attemptAmount(1)
+                .transactionId(UUID.randomUUID())
+                .build();
+    }
+}
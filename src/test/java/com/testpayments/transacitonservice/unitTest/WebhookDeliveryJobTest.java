@@ -0,0 +1,311 @@
+package com.testpayments.transacitonservice.unitTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.testpayments.transacitonservice.config.WebhookDeliveryProperties;
+import com.testpayments.transacitonservice.config.WebhookEndpointGuardProperties;
+import com.testpayments.transacitonservice.entity.Card;
+import com.testpayments.transacitonservice.entity.Customer;
+import com.testpayments.transacitonservice.entity.Status;
+import com.testpayments.transacitonservice.entity.Transaction;
+import com.testpayments.transacitonservice.entity.Type;
+import com.testpayments.transacitonservice.entity.Webhook;
+import com.testpayments.transacitonservice.entity.WebhookDelivery;
+import com.testpayments.transacitonservice.entity.WebhookDeliveryStatus;
+import com.testpayments.transacitonservice.entity.WebhookProtocol;
+import com.testpayments.transacitonservice.entity.WebhookResponseStatus;
+import com.testpayments.transacitonservice.exception.CustomNotFoundException;
+import com.testpayments.transacitonservice.service.CardService;
+import com.testpayments.transacitonservice.service.CustomerService;
+import com.testpayments.transacitonservice.service.TransactionService;
+import com.testpayments.transacitonservice.service.webhook.WebhookDeliveryJob;
+import com.testpayments.transacitonservice.service.webhook.WebhookEndpointGuard;
+import com.testpayments.transacitonservice.service.webhook.WebhookMerchantSettings;
+import com.testpayments.transacitonservice.service.webhook.WebhookMerchantSettingsCache;
+import com.testpayments.transacitonservice.service.webhook.WebhookPayloadWriter;
+import com.testpayments.transacitonservice.service.webhook.WebhookRequest;
+import com.testpayments.transacitonservice.service.webhook.WebhookRetryWheel;
+import com.testpayments.transacitonservice.service.webhook.WebhookService;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class WebhookDeliveryJobTest {
+
+    @InjectMocks
+    private WebhookDeliveryJob webhookDeliveryJob;
+
+    @Mock
+    private TransactionService transactionService;
+    @Mock
+    private CardService cardService;
+    @Mock
+    private CustomerService customerService;
+    @Mock
+    private WebhookService webhookService;
+    @Spy
+    private WebhookDeliveryProperties webhookDeliveryProperties = new WebhookDeliveryProperties();
+    @Mock
+    private WebhookEndpointGuard webhookEndpointGuard;
+    @Spy
+    private WebhookEndpointGuardProperties webhookEndpointGuardProperties = new WebhookEndpointGuardProperties();
+    @Mock
+    private WebhookMerchantSettingsCache webhookMerchantSettingsCache;
+    @Mock
+    private WebhookRetryWheel webhookRetryWheel;
+    @Spy
+    private WebhookPayloadWriter webhookPayloadWriter = new WebhookPayloadWriter(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    private Transaction transaction;
+    private Card card;
+    private Customer customer;
+    private WebhookDelivery delivery;
+    private WebhookMerchantSettings merchantSettings = WebhookMerchantSettings.DEFAULT;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new Transaction();
+        transaction.setId(UUID.randomUUID());
+        transaction.setType(Type.TOP_UP);
+        transaction.setCardId(UUID.randomUUID());
+        transaction.setAmount(new BigDecimal("500"));
+        transaction.setStatus(Status.APPROVED);
+        transaction.setNotificationUrl("http://localhost/webhook");
+        transaction.setCreatedAt(LocalDateTime.now());
+
+        card = new Card();
+        card.setId(transaction.getCardId());
+        card.setCustomerId(UUID.randomUUID());
+
+        customer = new Customer();
+        customer.setId(card.getCustomerId());
+        customer.setFirstName("Vanya");
+
+        delivery = WebhookDelivery.builder()
+                .id(UUID.randomUUID())
+                .transactionId(transaction.getId())
+                .transactionCreatedAt(transaction.getCreatedAt())
+                .notificationUrl(transaction.getNotificationUrl())
+                .deliveryStatus(WebhookDeliveryStatus.PENDING)
+                .attemptCount(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+
+        when(webhookService.claimDueDeliveries(any(), any(), anyInt())).thenReturn(Flux.just(delivery));
+        when(webhookService.updateDelivery(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(webhookMerchantSettingsCache.find(any())).thenAnswer(invocation -> Mono.just(merchantSettings));
+    }
+
+    private void stubWebhookData() {
+        when(transactionService.findTransactionById(transaction.getId(), transaction.getCreatedAt())).thenReturn(Mono.just(transaction));
+        when(cardService.findCardById(transaction.getCardId())).thenReturn(Mono.just(card));
+        when(customerService.findCustomerById(card.getCustomerId())).thenReturn(Mono.just(customer));
+    }
+
+    @Test
+    void deliverDueWebhooks_ok() {
+        stubWebhookData();
+        when(webhookService.sendWebhook(any(WebhookRequest.class))).thenReturn(Mono.just("Webhook Response"));
+        when(webhookService.recordAttempt(any(Webhook.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(webhookDeliveryJob.deliverDueWebhooks())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(webhookService).sendWebhook(argThat(request -> request.getNotificationUrl().equals(transaction.getNotificationUrl())
+                && new String(request.getPayload(), StandardCharsets.UTF_8).contains(transaction.getId().toString())));
+        verify(webhookService).recordAttempt(argThat(webhook -> webhook.getAttemptAmount() == 1
+                && webhook.getRequestBody().contains(transaction.getId().toString())));
+        verify(webhookService).updateDelivery(argThat(updated ->
+                updated.getDeliveryStatus() == WebhookDeliveryStatus.DELIVERED && updated.getAttemptCount() == 1));
+    }
+
+    @Test
+    void deliverDueWebhooks_schedulesRetryOnFailure() {
+        LocalDateTime claimedAt = delivery.getNextAttemptAt();
+        stubWebhookData();
+        when(webhookService.sendWebhook(any(WebhookRequest.class))).thenReturn(Mono.error(new RuntimeException("Connection refused")));
+        when(webhookService.recordAttempt(any(Webhook.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(webhookDeliveryJob.deliverDueWebhooks())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(webhookService).updateDelivery(argThat(updated ->
+                updated.getDeliveryStatus() == WebhookDeliveryStatus.PENDING
+                        && updated.getAttemptCount() == 1
+                        && updated.getNextAttemptAt().isAfter(claimedAt)));
+        verify(webhookRetryWheel).schedule(argThat(delay ->
+                delay.compareTo(Duration.ofSeconds(1)) >= 0 && delay.compareTo(Duration.ofSeconds(3)) <= 0));
+    }
+
+    @Test
+    void deliverDueWebhooks_failsWhenAttemptsExhausted() {
+        delivery.setAttemptCount(webhookDeliveryProperties.getRetrySchedule().size());
+        stubWebhookData();
+        when(webhookService.sendWebhook(any(WebhookRequest.class))).thenReturn(Mono.error(new RuntimeException("Connection refused")));
+        when(webhookService.recordAttempt(any(Webhook.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(webhookDeliveryJob.deliverDueWebhooks())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(webhookService).updateDelivery(argThat(updated ->
+                updated.getDeliveryStatus() == WebhookDeliveryStatus.FAILED
+                        && updated.getAttemptCount() == webhookDeliveryProperties.getRetrySchedule().size() + 1));
+        verify(webhookRetryWheel, never()).schedule(any());
+    }
+
+    @Test
+    void deliverDueWebhooks_countsFailedLoadAsAttempt() {
+        LocalDateTime claimedAt = delivery.getNextAttemptAt();
+        when(transactionService.findTransactionById(transaction.getId(), transaction.getCreatedAt()))
+                .thenReturn(Mono.error(new CustomNotFoundException("Transaction was not found with ID: " + transaction.getId())));
+
+        StepVerifier.create(webhookDeliveryJob.deliverDueWebhooks())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(webhookService, never()).sendWebhook(any());
+        verify(webhookService, never()).recordAttempt(any());
+        verify(webhookService).updateDelivery(argThat(updated ->
+                updated.getDeliveryStatus() == WebhookDeliveryStatus.PENDING
+                        && updated.getAttemptCount() == 1
+                        && updated.getNextAttemptAt().isAfter(claimedAt)));
+    }
+
+    @Test
+    void deliverDueWebhooks_failsDeliveryThatNeverLoads() {
+        delivery.setAttemptCount(webhookDeliveryProperties.getRetrySchedule().size());
+        when(transactionService.findTransactionById(transaction.getId(), transaction.getCreatedAt()))
+                .thenReturn(Mono.error(new RuntimeException("Database error")));
+
+        StepVerifier.create(webhookDeliveryJob.deliverDueWebhooks())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(webhookService).updateDelivery(argThat(updated ->
+                updated.getDeliveryStatus() == WebhookDeliveryStatus.FAILED
+                        && updated.getAttemptCount() == webhookDeliveryProperties.getRetrySchedule().size() + 1));
+    }
+
+    @Test
+    void deliverDueWebhooks_parksWhenCircuitIsOpen() {
+        LocalDateTime claimedAt = delivery.getNextAttemptAt();
+        when(webhookEndpointGuard.isOpen(delivery.getNotificationUrl())).thenReturn(true);
+
+        StepVerifier.create(webhookDeliveryJob.deliverDueWebhooks())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(webhookService, never()).sendWebhook(any());
+        verify(webhookService, never()).recordAttempt(any());
+        verify(webhookService).updateDelivery(argThat(updated ->
+                updated.getDeliveryStatus() == WebhookDeliveryStatus.PENDING
+                        && updated.getAttemptCount() == 0
+                        && updated.getNextAttemptAt().isAfter(claimedAt)));
+    }
+
+    @Test
+    void deliverDueWebhooks_parksDeliveryWhenMerchantSettingsFail() {
+        LocalDateTime claimedAt = delivery.getNextAttemptAt();
+        when(webhookMerchantSettingsCache.find(any())).thenReturn(Mono.error(new CustomNotFoundException("Merchant not found")));
+
+        StepVerifier.create(webhookDeliveryJob.deliverDueWebhooks())
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(webhookService, never()).sendWebhook(any());
+        verify(webhookService).updateDelivery(argThat(updated ->
+                updated.getDeliveryStatus() == WebhookDeliveryStatus.PENDING
+                        && updated.getAttemptCount() == 0
+                        && updated.getNextAttemptAt().isAfter(claimedAt)));
+    }
+
+    @Test
+    void deliverDueWebhooks_parksWhenCallIsRejected() {
+        stubWebhookData();
+        when(webhookService.sendWebhook(any(WebhookRequest.class))).thenReturn(Mono.error(
+                CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("localhost"))));
+
+        StepVerifier.create(webhookDeliveryJob.deliverDueWebhooks())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(webhookService, never()).recordAttempt(any());
+        verify(webhookService).updateDelivery(argThat(updated ->
+                updated.getDeliveryStatus() == WebhookDeliveryStatus.PENDING && updated.getAttemptCount() == 0));
+    }
+
+    @Test
+    void deliverDueWebhooks_sendsOneRequestForBatchingMerchant() {
+        UUID merchantId = UUID.randomUUID();
+        merchantSettings = new WebhookMerchantSettings(WebhookProtocol.HTTP1, true, List.of());
+        delivery.setMerchantId(merchantId);
+
+        Transaction secondTransaction = new Transaction();
+        secondTransaction.setId(UUID.randomUUID());
+        secondTransaction.setType(Type.TOP_UP);
+        secondTransaction.setCardId(card.getId());
+        secondTransaction.setAmount(new BigDecimal("100"));
+        secondTransaction.setStatus(Status.FAILED);
+        secondTransaction.setNotificationUrl(transaction.getNotificationUrl());
+        secondTransaction.setCreatedAt(LocalDateTime.now());
+        WebhookDelivery secondDelivery = WebhookDelivery.builder()
+                .id(UUID.randomUUID())
+                .transactionId(secondTransaction.getId())
+                .transactionCreatedAt(secondTransaction.getCreatedAt())
+                .merchantId(merchantId)
+                .notificationUrl(secondTransaction.getNotificationUrl())
+                .deliveryStatus(WebhookDeliveryStatus.PENDING)
+                .attemptCount(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+
+        when(webhookService.claimDueDeliveries(any(), any(), anyInt())).thenReturn(Flux.just(delivery, secondDelivery));
+        stubWebhookData();
+        when(transactionService.findTransactionById(secondTransaction.getId(), secondTransaction.getCreatedAt())).thenReturn(Mono.just(secondTransaction));
+        when(webhookService.sendWebhook(any(WebhookRequest.class))).thenReturn(Mono.just("Webhook Response"));
+        when(webhookService.recordAttempt(any(Webhook.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(webhookDeliveryJob.deliverDueWebhooks())
+                .expectNext(2L)
+                .verifyComplete();
+
+        verify(webhookService).sendWebhook(argThat(request -> {
+            String body = new String(request.getPayload(), StandardCharsets.UTF_8);
+            return body.startsWith("[") && body.endsWith("]")
+                    && body.contains(transaction.getId().toString())
+                    && body.contains(secondTransaction.getId().toString());
+        }));
+        verify(webhookService, times(2)).recordAttempt(argThat(webhook ->
+                webhook.getResponseStatus() == WebhookResponseStatus.SUCCESSFUL && webhook.getAttemptAmount() == 1));
+        verify(webhookService, times(2)).updateDelivery(argThat(updated ->
+                updated.getDeliveryStatus() == WebhookDeliveryStatus.DELIVERED && updated.getAttemptCount() == 1));
+    }
+}
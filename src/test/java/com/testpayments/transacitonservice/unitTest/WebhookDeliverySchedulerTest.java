@@ -0,0 +1,84 @@
+package com.testpayments.transacitonservice.unitTest;
+
+import com.testpayments.transacitonservice.config.WebhookDeliveryProperties;
+import com.testpayments.transacitonservice.service.webhook.WebhookDeliveryJob;
+import com.testpayments.transacitonservice.service.webhook.WebhookDeliveryScheduler;
+import com.testpayments.transacitonservice.service.webhook.WebhookRetryWheel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class WebhookDeliverySchedulerTest {
+
+    @InjectMocks
+    private WebhookDeliveryScheduler webhookDeliveryScheduler;
+
+    @Mock
+    private WebhookDeliveryJob webhookDeliveryJob;
+    @Spy
+    private WebhookDeliveryProperties webhookDeliveryProperties = new WebhookDeliveryProperties();
+    @Spy
+    private WebhookRetryWheel webhookRetryWheel = new WebhookRetryWheel(new WebhookDeliveryProperties());
+
+    @BeforeEach
+    void setUp() {
+        webhookDeliveryProperties.setInitialDelay(Duration.ZERO);
+        webhookDeliveryProperties.setPollInterval(Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        webhookDeliveryScheduler.stop();
+        webhookRetryWheel.destroy();
+    }
+
+    @Test
+    void start_runsPassWhenScheduledRetryBecomesDue() {
+        when(webhookDeliveryJob.deliverDueWebhooks()).thenReturn(Mono.just(0L));
+
+        webhookDeliveryScheduler.start();
+        verify(webhookDeliveryJob, timeout(1000).times(1)).deliverDueWebhooks();
+
+        webhookRetryWheel.schedule(Duration.ofMillis(200));
+
+        verify(webhookDeliveryJob, timeout(2000).times(2)).deliverDueWebhooks();
+    }
+
+    @Test
+    void start_leavesRetriesBeyondHorizonToPolling() {
+        when(webhookDeliveryJob.deliverDueWebhooks()).thenReturn(Mono.just(0L));
+
+        webhookDeliveryScheduler.start();
+        verify(webhookDeliveryJob, timeout(1000).times(1)).deliverDueWebhooks();
+
+        webhookRetryWheel.schedule(Duration.ofMinutes(10));
+
+        verify(webhookDeliveryJob, after(500).times(1)).deliverDueWebhooks();
+    }
+
+    @Test
+    void wakeUp_doesNotOverlapRunningPass() {
+        when(webhookDeliveryJob.deliverDueWebhooks()).thenReturn(Mono.never());
+
+        webhookDeliveryScheduler.start();
+        verify(webhookDeliveryJob, timeout(1000).times(1)).deliverDueWebhooks();
+
+        webhookDeliveryScheduler.wakeUp();
+
+        verify(webhookDeliveryJob, after(300).times(1)).deliverDueWebhooks();
+    }
+}
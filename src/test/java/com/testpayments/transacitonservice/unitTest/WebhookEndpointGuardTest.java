@@ -0,0 +1,92 @@
+package com.testpayments.transacitonservice.unitTest;
+
+import com.testpayments.transacitonservice.config.WebhookEndpointGuardProperties;
+import com.testpayments.transacitonservice.service.webhook.WebhookEndpointGuard;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WebhookEndpointGuardTest {
+
+    private static final String FAILING_URL = "http://failing.merchant.com/webhook";
+    private static final String HEALTHY_URL = "http://healthy.merchant.com/webhook";
+
+    private WebhookEndpointGuardProperties properties;
+    private WebhookEndpointGuard webhookEndpointGuard;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WebhookEndpointGuardProperties();
+        properties.setSlidingWindowSize(4);
+        properties.setMinimumNumberOfCalls(4);
+        properties.setMaxConcurrentCallsPerHost(1);
+        webhookEndpointGuard = new WebhookEndpointGuard(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void protect_opensCircuitPerHost() {
+        for (int i = 0; i < properties.getMinimumNumberOfCalls(); i++) {
+            StepVerifier.create(webhookEndpointGuard.protect(FAILING_URL, Mono.error(new RuntimeException("Connection refused"))))
+                    .expectError(RuntimeException.class)
+                    .verify();
+        }
+
+        assertTrue(webhookEndpointGuard.isOpen(FAILING_URL));
+        assertFalse(webhookEndpointGuard.isOpen(HEALTHY_URL));
+        StepVerifier.create(webhookEndpointGuard.protect(FAILING_URL, Mono.just("OK")))
+                .expectError(CallNotPermittedException.class)
+                .verify();
+        StepVerifier.create(webhookEndpointGuard.protect(HEALTHY_URL, Mono.just("OK")))
+                .expectNext("OK")
+                .verifyComplete();
+    }
+
+    @Test
+    void protect_rejectsCallsAboveBulkheadLimit() {
+        webhookEndpointGuard.protect(HEALTHY_URL, Mono.never()).subscribe();
+
+        StepVerifier.create(webhookEndpointGuard.protect(HEALTHY_URL, Mono.just("OK")))
+                .expectError(BulkheadFullException.class)
+                .verify();
+    }
+
+    @Test
+    void protect_releasesGuardOfIdleHost() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AtomicLong nanos = new AtomicLong();
+        WebhookEndpointGuard expiringGuard = new WebhookEndpointGuard(properties, meterRegistry, nanos::get);
+        for (int i = 0; i < properties.getMinimumNumberOfCalls(); i++) {
+            StepVerifier.create(expiringGuard.protect(FAILING_URL, Mono.error(new RuntimeException("Connection refused"))))
+                    .expectError(RuntimeException.class)
+                    .verify();
+        }
+        assertTrue(expiringGuard.isOpen(FAILING_URL));
+        assertFalse(meterRegistry.find("resilience4j.circuitbreaker.state").tag("name", "failing.merchant.com").gauges().isEmpty());
+
+        nanos.addAndGet(properties.getIdleHostExpiry().plusSeconds(1).toNanos());
+        StepVerifier.create(expiringGuard.protect(HEALTHY_URL, Mono.just("OK")))
+                .expectNext("OK")
+                .verifyComplete();
+
+        assertFalse(expiringGuard.isOpen(FAILING_URL));
+        assertTrue(meterRegistry.find("resilience4j.circuitbreaker.state").tag("name", "failing.merchant.com").gauges().isEmpty());
+        assertTrue(meterRegistry.find("resilience4j.bulkhead.available.concurrent.calls").tag("name", "failing.merchant.com").gauges().isEmpty());
+        assertFalse(meterRegistry.find("resilience4j.bulkhead.available.concurrent.calls").tag("name", "healthy.merchant.com").gauges().isEmpty());
+    }
+
+    @Test
+    void isRejection_ok() {
+        assertTrue(WebhookEndpointGuard.isRejection(BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("host"))));
+        assertFalse(WebhookEndpointGuard.isRejection(new RuntimeException("Connection refused")));
+    }
+}
@@ -0,0 +1,98 @@
+package com.testpayments.transacitonservice.unitTest;
+
+import com.testpayments.transacitonservice.config.WebClientConfig;
+import com.testpayments.transacitonservice.config.WebhookClientProperties;
+import com.testpayments.transacitonservice.entity.WebhookProtocol;
+import com.testpayments.transacitonservice.service.webhook.WebhookClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sends concurrent webhooks to a local stub server that speaks both HTTP/1.1 and h2c and
+ * counts the TCP connections each protocol needs.
+ */
+public class WebhookHttp2DeliveryTest {
+
+    private static final int CONCURRENT_WEBHOOKS = 20;
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private DisposableServer server;
+    private ConnectionProvider http1Provider;
+    private ConnectionProvider http2Provider;
+    private WebhookClients webhookClients;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .doOnChannelInit((observer, channel, address) -> connections.incrementAndGet())
+                .handle((request, response) -> response.sendString(request.receive()
+                        .aggregate()
+                        .asString()
+                        .delayElement(Duration.ofMillis(100))
+                        .map(body -> "OK")))
+                .bindNow();
+
+        WebhookClientProperties properties = new WebhookClientProperties();
+        properties.setHttp2MaxConnectionsPerHost(1);
+        WebClientConfig webClientConfig = new WebClientConfig();
+        http1Provider = webClientConfig.webhookConnectionProvider(properties);
+        http2Provider = webClientConfig.webhookHttp2ConnectionProvider(properties);
+        webhookClients = webClientConfig.webhookClients(http1Provider, http2Provider, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        http1Provider.dispose();
+        http2Provider.dispose();
+        server.disposeNow();
+    }
+
+    @Test
+    void h2c_multiplexesWebhooksOverOneConnection() {
+        StepVerifier.create(sendConcurrently(WebhookProtocol.H2C))
+                .expectNext((long) CONCURRENT_WEBHOOKS)
+                .verifyComplete();
+
+        assertThat(connections.get()).isEqualTo(1);
+    }
+
+    @Test
+    void http1_needsConnectionPerInFlightWebhook() {
+        StepVerifier.create(sendConcurrently(WebhookProtocol.HTTP1))
+                .expectNext((long) CONCURRENT_WEBHOOKS)
+                .verifyComplete();
+
+        assertThat(connections.get()).isGreaterThan(1);
+    }
+
+    private Mono<Long> sendConcurrently(WebhookProtocol protocol) {
+        byte[] payload = "{\"status\":\"APPROVED\"}".getBytes(StandardCharsets.UTF_8);
+        return Flux.range(0, CONCURRENT_WEBHOOKS)
+                .flatMap(i -> webhookClients.forProtocol(protocol)
+                        .post()
+                        .uri("http://localhost:" + server.port() + "/webhook")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(payload)
+                        .retrieve()
+                        .bodyToMono(String.class))
+                .filter("OK"::equals)
+                .count();
+    }
+}
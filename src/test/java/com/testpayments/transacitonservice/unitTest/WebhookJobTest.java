@@ -1,22 +1,21 @@
 package com.testpayments.transacitonservice.unitTest;
 
+import com.testpayments.transacitonservice.config.SettlementProperties;
 import com.testpayments.transacitonservice.entity.Account;
-import com.testpayments.transacitonservice.entity.Card;
-import com.testpayments.transacitonservice.entity.Customer;
 import com.testpayments.transacitonservice.entity.Status;
 import com.testpayments.transacitonservice.entity.Transaction;
 import com.testpayments.transacitonservice.entity.Type;
-import com.testpayments.transacitonservice.entity.Webhook;
 import com.testpayments.transacitonservice.service.AccountService;
 import com.testpayments.transacitonservice.service.CardService;
-import com.testpayments.transacitonservice.service.CustomerService;
 import com.testpayments.transacitonservice.service.TransactionService;
+import com.testpayments.transacitonservice.service.webhook.SettlementMetrics;
 import com.testpayments.transacitonservice.service.webhook.WebhookJob;
 import com.testpayments.transacitonservice.service.webhook.WebhookService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
@@ -24,9 +23,13 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -47,12 +50,15 @@ public class WebhookJobTest {
     private WebhookService webhookService;
     @Mock
     private TransactionalOperator transactionalOperator;
+    @Spy
+    private SettlementProperties settlementProperties = new SettlementProperties();
     @Mock
-    private CustomerService customerService;
+    private SettlementMetrics settlementMetrics;
 
     @Test
     void assignStatusToTransactionTest() {
         Transaction transaction = new Transaction();
+        transaction.setId(UUID.randomUUID());
         transaction.setType(Type.TOP_UP);
         transaction.setAccountId(UUID.randomUUID());
         transaction.setCardId(UUID.randomUUID());
@@ -63,54 +69,147 @@ public class WebhookJobTest {
         account.setId(transaction.getAccountId());
         account.setBalance(new BigDecimal("1000"));
 
-        Card card = new Card();
-        card.setId(transaction.getCardId());
-        card.setCustomerId(UUID.randomUUID());
-        card.setBalance(new BigDecimal("200"));
+        when(transactionService.claimTransactions(eq(Status.IN_PROCESS), eq(settlementProperties.getNodeId()), any(), anyInt()))
+                .thenReturn(Flux.just(transaction));
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0, Mono.class));
+        when(transactionService.completeClaimedTransactions(List.of(transaction), settlementProperties.getNodeId()))
+                .thenReturn(Mono.just(List.of(transaction)));
+        when(transactionService.assignRandomStatus(transaction)).thenReturn(transaction);
+        when(accountService.creditAccount(account.getId(), transaction.getAmount(), transaction.getId())).thenReturn(Mono.empty());
+        when(webhookService.enqueueDeliveries(List.of(transaction.getId()))).thenReturn(Mono.empty());
+
+        StepVerifier.create(webhookJob.assignStatusToTransaction())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(transactionService).completeClaimedTransactions(List.of(transaction), settlementProperties.getNodeId());
+        verify(accountService).creditAccount(account.getId(), transaction.getAmount(), transaction.getId());
+        verify(webhookService).enqueueDeliveries(List.of(transaction.getId()));
+        verify(webhookService, never()).sendWebhook(any());
+    }
 
-        Customer customer = new Customer();
-        customer.setId(UUID.randomUUID());
-        customer.setFirstName("Vanya");
+    @Test
+    void assignStatusToTransactionTest_errorInClaim() {
+        when(transactionService.claimTransactions(eq(Status.IN_PROCESS), eq(settlementProperties.getNodeId()), any(), anyInt()))
+                .thenReturn(Flux.error(new RuntimeException("Database error")));
 
-        Webhook webhook = new Webhook();
+        StepVerifier.create(webhookJob.assignStatusToTransaction())
+                .expectErrorMatches(throwable -> throwable instanceof RuntimeException && throwable.getMessage().contains("Database error"))
+                .verify();
+    }
 
-        when(transactionService.findAllTransactionsByStatus(Status.IN_PROCESS)).thenReturn(Flux.just(transaction));
+    @Test
+    void assignStatusToTransactionTest_batchMode() {
+        settlementProperties.setBatchEnabled(true);
+        UUID accountId = UUID.randomUUID();
+
+        Transaction topUp = new Transaction();
+        topUp.setId(UUID.randomUUID());
+        topUp.setType(Type.TOP_UP);
+        topUp.setAccountId(accountId);
+        topUp.setCardId(UUID.randomUUID());
+        topUp.setAmount(new BigDecimal("500"));
+        topUp.setStatus(Status.APPROVED);
+
+        Transaction payOut = new Transaction();
+        payOut.setId(UUID.randomUUID());
+        payOut.setType(Type.PAY_OUT);
+        payOut.setAccountId(accountId);
+        payOut.setCardId(UUID.randomUUID());
+        payOut.setAmount(new BigDecimal("300"));
+        payOut.setStatus(Status.FAILED);
+
+        when(transactionService.claimTransactions(Status.IN_PROCESS, settlementProperties.getNodeId(),
+                settlementProperties.getLeaseDuration(), settlementProperties.getBatchSize()))
+                .thenReturn(Flux.just(topUp, payOut));
         when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0, Mono.class));
-        when(transactionService.updateTransaction(any())).thenReturn(Mono.just(transaction));
-        when(transactionService.assignRandomStatus(transaction)).thenReturn(transaction);
-        when(accountService.findAccountByIdForUpdate(transaction.getAccountId())).thenReturn(Mono.just(account));
-        when(cardService.findCardById(transaction.getCardId())).thenReturn(Mono.just(card));
-        when(accountService.updateAccount(any())).thenReturn(Mono.just(account));
-        when(customerService.findCustomerById(any())).thenReturn(Mono.just(customer));
-        when(webhookService.findMaxAttemptCountByTransactionId(any())).thenReturn(Mono.just(1));
-        when(webhookService.sendWebhook(any(Webhook.class))).thenReturn(Mono.just("Webhook Response"));
-        when(webhookService.save(any(Webhook.class))).thenReturn(Mono.just(webhook));
+        when(transactionService.assignRandomStatus(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionService.completeClaimedTransactions(List.of(topUp, payOut), settlementProperties.getNodeId()))
+                .thenReturn(Mono.just(List.of(topUp, payOut)));
+        when(accountService.creditAccount(eq(accountId), eq(new BigDecimal("800")), any())).thenReturn(Mono.empty());
+        when(webhookService.enqueueDeliveries(List.of(topUp.getId(), payOut.getId()))).thenReturn(Mono.empty());
 
         StepVerifier.create(webhookJob.assignStatusToTransaction())
+                .expectNext(2L)
                 .verifyComplete();
 
-        verify(transactionService).updateTransaction(any());
-        verify(accountService).findAccountByIdForUpdate(any());
-        verify(cardService, times(2)).findCardById(any());
-        verify(customerService).findCustomerById(any());
-        verify(webhookService).sendWebhook(any(Webhook.class));
-        verify(webhookService).save(any(Webhook.class));
-        verify(webhookService).findMaxAttemptCountByTransactionId(any());
+        verify(transactionService).completeClaimedTransactions(List.of(topUp, payOut), settlementProperties.getNodeId());
+        verify(accountService, times(1)).creditAccount(eq(accountId), eq(new BigDecimal("800")), any());
+        verify(cardService, never()).creditCard(any(), any());
+        verify(webhookService, times(1)).enqueueDeliveries(List.of(topUp.getId(), payOut.getId()));
     }
 
     @Test
-    void assignStatusToTransactionTest_errorInWebhookSending() {
+    void assignStatusToTransactionTest_batchModeFallsBackToOneByOne() {
+        settlementProperties.setBatchEnabled(true);
+        UUID accountId = UUID.randomUUID();
+
+        Transaction topUp = new Transaction();
+        topUp.setId(UUID.randomUUID());
+        topUp.setType(Type.TOP_UP);
+        topUp.setAccountId(accountId);
+        topUp.setCardId(UUID.randomUUID());
+        topUp.setAmount(new BigDecimal("500"));
+        topUp.setStatus(Status.APPROVED);
+
+        Transaction payOut = new Transaction();
+        payOut.setId(UUID.randomUUID());
+        payOut.setType(Type.PAY_OUT);
+        payOut.setAccountId(accountId);
+        payOut.setCardId(UUID.randomUUID());
+        payOut.setAmount(new BigDecimal("300"));
+        payOut.setStatus(Status.FAILED);
+
+        when(transactionService.claimTransactions(Status.IN_PROCESS, settlementProperties.getNodeId(),
+                settlementProperties.getLeaseDuration(), settlementProperties.getBatchSize()))
+                .thenReturn(Flux.just(topUp, payOut));
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0, Mono.class));
+        when(transactionService.assignRandomStatus(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionService.completeClaimedTransactions(List.of(topUp, payOut), settlementProperties.getNodeId()))
+                .thenReturn(Mono.just(List.of(topUp, payOut)));
+        when(accountService.creditAccount(eq(accountId), eq(new BigDecimal("800")), any()))
+                .thenReturn(Mono.error(new RuntimeException("Database error")));
+        when(transactionService.completeClaimedTransactions(List.of(topUp), settlementProperties.getNodeId()))
+                .thenReturn(Mono.just(List.of(topUp)));
+        when(accountService.creditAccount(accountId, topUp.getAmount(), topUp.getId()))
+                .thenReturn(Mono.error(new RuntimeException("Database error")));
+        when(transactionService.completeClaimedTransactions(List.of(payOut), settlementProperties.getNodeId()))
+                .thenReturn(Mono.just(List.of(payOut)));
+        when(accountService.creditAccount(accountId, payOut.getAmount(), payOut.getId())).thenReturn(Mono.empty());
+        when(webhookService.enqueueDeliveries(List.of(payOut.getId()))).thenReturn(Mono.empty());
+
+        StepVerifier.create(webhookJob.assignStatusToTransaction())
+                .expectNext(2L)
+                .verifyComplete();
+
+        verify(webhookService).enqueueDeliveries(List.of(payOut.getId()));
+        verify(webhookService, never()).enqueueDeliveries(List.of(topUp.getId()));
+        verify(webhookService, never()).enqueueDeliveries(List.of(topUp.getId(), payOut.getId()));
+    }
+
+    @Test
+    void assignStatusToTransactionTest_claimLost() {
         Transaction transaction = new Transaction();
+        transaction.setId(UUID.randomUUID());
         transaction.setType(Type.TOP_UP);
         transaction.setAccountId(UUID.randomUUID());
         transaction.setCardId(UUID.randomUUID());
         transaction.setAmount(new BigDecimal("500"));
         transaction.setStatus(Status.APPROVED);
 
-        when(transactionService.findAllTransactionsByStatus(Status.IN_PROCESS)).thenReturn(Flux.error(new RuntimeException("Database error")));
+        when(transactionService.claimTransactions(eq(Status.IN_PROCESS), eq(settlementProperties.getNodeId()), any(), anyInt()))
+                .thenReturn(Flux.just(transaction));
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0, Mono.class));
+        when(transactionService.assignRandomStatus(transaction)).thenReturn(transaction);
+        when(transactionService.completeClaimedTransactions(List.of(transaction), settlementProperties.getNodeId()))
+                .thenReturn(Mono.just(List.of()));
 
         StepVerifier.create(webhookJob.assignStatusToTransaction())
-                .expectErrorMatches(throwable -> throwable instanceof RuntimeException && throwable.getMessage().contains("Database error"))
-                .verify();
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(accountService, never()).creditAccount(any(), any(), any());
+        verify(cardService, never()).creditCard(any(), any());
+        verify(webhookService, never()).enqueueDeliveries(any());
     }
 }
@@ -0,0 +1,95 @@
+package com.testpayments.transacitonservice.unitTest;
+
+import com.testpayments.transacitonservice.entity.Merchant;
+import com.testpayments.transacitonservice.service.webhook.WebhookMerchantSettings;
+import com.testpayments.transacitonservice.service.webhook.WebhookSigningKey;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WebhookSigningKeyTest {
+
+    private static final byte[] PAYLOAD = "what do ya want for nothing?".getBytes(StandardCharsets.UTF_8);
+    // RFC 4231, test case 2
+    private static final String EXPECTED_SIGNATURE = "5bdcc146bf60754e6a042426089575c75a003f089d2739839dec58b964ec3843";
+
+    @Test
+    void sign_matchesHmacSha256() {
+        WebhookSigningKey signingKey = new WebhookSigningKey("Jefe");
+
+        assertThat(HexFormat.of().formatHex(signingKey.sign(PAYLOAD))).isEqualTo(EXPECTED_SIGNATURE);
+        assertThat(HexFormat.of().formatHex(signingKey.sign(PAYLOAD))).isEqualTo(EXPECTED_SIGNATURE);
+    }
+
+    @Test
+    void sign_keepsKeysApartOnOneThread() {
+        WebhookSigningKey signingKey = new WebhookSigningKey("Jefe");
+        WebhookSigningKey otherKey = new WebhookSigningKey("other-key");
+
+        String otherSignature = HexFormat.of().formatHex(otherKey.sign(PAYLOAD));
+
+        assertThat(HexFormat.of().formatHex(signingKey.sign(PAYLOAD))).isEqualTo(EXPECTED_SIGNATURE);
+        assertThat(otherSignature).isNotEqualTo(EXPECTED_SIGNATURE);
+        assertThat(HexFormat.of().formatHex(otherKey.sign(PAYLOAD))).isEqualTo(otherSignature);
+    }
+
+    @Test
+    void sign_isConsistentAcrossThreads() throws Exception {
+        WebhookSigningKey signingKey = new WebhookSigningKey("Jefe");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<String>> tasks = IntStream.range(0, 1_000)
+                    .<Callable<String>>mapToObj(i -> () -> HexFormat.of().formatHex(signingKey.sign(PAYLOAD)))
+                    .toList();
+            for (Future<String> signature : executor.invokeAll(tasks)) {
+                assertThat(signature.get()).isEqualTo(EXPECTED_SIGNATURE);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void from_signsWithPreviousKeyDuringOverlap() {
+        Merchant merchant = Merchant.builder()
+                .webhookSigningKey("new-key")
+                .webhookPreviousSigningKey("Jefe")
+                .webhookSigningKeyRotatedAt(LocalDateTime.now().minusHours(1))
+                .build();
+
+        List<WebhookSigningKey> signingKeys = WebhookMerchantSettings.from(merchant, Duration.ofHours(24)).getSigningKeys();
+
+        assertThat(signingKeys).hasSize(2);
+        assertThat(HexFormat.of().formatHex(signingKeys.get(1).sign(PAYLOAD))).isEqualTo(EXPECTED_SIGNATURE);
+    }
+
+    @Test
+    void from_dropsPreviousKeyAfterOverlap() {
+        Merchant merchant = Merchant.builder()
+                .webhookSigningKey("Jefe")
+                .webhookPreviousSigningKey("old-key")
+                .webhookSigningKeyRotatedAt(LocalDateTime.now().minusDays(2))
+                .build();
+
+        List<WebhookSigningKey> signingKeys = WebhookMerchantSettings.from(merchant, Duration.ofHours(24)).getSigningKeys();
+
+        assertThat(signingKeys).hasSize(1);
+        assertThat(HexFormat.of().formatHex(signingKeys.get(0).sign(PAYLOAD))).isEqualTo(EXPECTED_SIGNATURE);
+    }
+
+    @Test
+    void from_leavesWebhooksUnsignedWithoutKey() {
+        assertThat(WebhookMerchantSettings.from(new Merchant(), Duration.ofHours(24)).getSigningKeys()).isEmpty();
+    }
+}
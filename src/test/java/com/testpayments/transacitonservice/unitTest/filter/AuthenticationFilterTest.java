@@ -1,11 +1,15 @@
 package com.testpayments.transacitonservice.unitTest.filter;
 
+import com.testpayments.transacitonservice.auth.AuthFailureLimiter;
 import com.testpayments.transacitonservice.auth.AuthService;
 import com.testpayments.transacitonservice.auth.AuthenticationFilter;
+import com.testpayments.transacitonservice.config.AuthFailureLimiterProperties;
+import com.testpayments.transacitonservice.exception.UnauthorizedException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
@@ -14,6 +18,8 @@ import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.net.InetSocketAddress;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.mockito.Mockito.*;
@@ -27,9 +33,15 @@ public class AuthenticationFilterTest {
     @Mock
     private AuthService authService;
 
+    @Mock
+    private AuthFailureLimiter authFailureLimiter;
+
     @Mock
     private WebFilterChain webFilterChain;
 
+    @Spy
+    private AuthFailureLimiterProperties authFailureLimiterProperties = new AuthFailureLimiterProperties();
+
     @Test
     void filter_withValidAuthorization() {
         String authHeader = "Bearer validToken";
@@ -69,4 +81,79 @@ public class AuthenticationFilterTest {
         assert exchange.getResponse().getStatusCode() == HttpStatus.UNAUTHORIZED;
     }
 
+    @Test
+    void filter_withBlockedRemoteAddress() {
+        MockServerHttpRequest request = MockServerHttpRequest.get("/api")
+                .header("Authorization", "Basic credentials")
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 40000))
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+
+        when(authFailureLimiter.isBlocked("10.0.0.1")).thenReturn(true);
+
+        Mono<Void> result = authenticationFilter.filter(exchange, webFilterChain);
+
+        StepVerifier.create(result)
+                .verifyComplete();
+
+        verify(authService, never()).authenticate(any());
+        verify(webFilterChain, never()).filter(exchange);
+        assert exchange.getResponse().getStatusCode() == HttpStatus.TOO_MANY_REQUESTS;
+    }
+
+    @Test
+    void filter_recordsFailureForRemoteAddress() {
+        MockServerHttpRequest request = MockServerHttpRequest.get("/api")
+                .header("Authorization", "Basic credentials")
+                .remoteAddress(new InetSocketAddress("10.0.0.2", 40000))
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+
+        when(authService.authenticate("Basic credentials")).thenReturn(Mono.error(new UnauthorizedException("Merchant is disabled")));
+
+        Mono<Void> result = authenticationFilter.filter(exchange, webFilterChain);
+
+        StepVerifier.create(result)
+                .verifyComplete();
+
+        verify(authFailureLimiter).recordFailure("10.0.0.2");
+        assert exchange.getResponse().getStatusCode() == HttpStatus.UNAUTHORIZED;
+    }
+
+    @Test
+    void filter_ignoresForwardedForFromUntrustedPeer() {
+        MockServerHttpRequest request = MockServerHttpRequest.get("/api")
+                .header("Authorization", "Basic credentials")
+                .header("X-Forwarded-For", "203.0.113.7")
+                .remoteAddress(new InetSocketAddress("10.0.0.3", 40000))
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+
+        when(authService.authenticate("Basic credentials")).thenReturn(Mono.error(new UnauthorizedException("Merchant is disabled")));
+
+        StepVerifier.create(authenticationFilter.filter(exchange, webFilterChain))
+                .verifyComplete();
+
+        verify(authFailureLimiter).isBlocked("10.0.0.3");
+        verify(authFailureLimiter).recordFailure("10.0.0.3");
+    }
+
+    @Test
+    void filter_keysOnForwardedClientBehindTrustedProxy() {
+        authFailureLimiterProperties.setTrustedProxies(Set.of("10.0.0.4", "10.0.0.5"));
+        MockServerHttpRequest request = MockServerHttpRequest.get("/api")
+                .header("Authorization", "Basic credentials")
+                .header("X-Forwarded-For", "198.51.100.1, 203.0.113.8, 10.0.0.5")
+                .remoteAddress(new InetSocketAddress("10.0.0.4", 40000))
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+
+        when(authService.authenticate("Basic credentials")).thenReturn(Mono.error(new UnauthorizedException("Merchant is disabled")));
+
+        StepVerifier.create(authenticationFilter.filter(exchange, webFilterChain))
+                .verifyComplete();
+
+        verify(authFailureLimiter).isBlocked("203.0.113.8");
+        verify(authFailureLimiter).recordFailure("203.0.113.8");
+    }
 }
@@ -73,7 +73,7 @@ public class AccountServiceImplTest {
         Account account = new Account();
         account.setId(accountId);
 
-        when(accountRepository.findById(accountId)).thenReturn(Mono.just(account));
+        when(accountRepository.findAccountWithTotalBalanceById(accountId)).thenReturn(Mono.just(account));
 
         Mono<Account> accountMono = accountService.findById(accountId);
         StepVerifier.create(accountMono)
@@ -86,7 +86,7 @@ public class AccountServiceImplTest {
         UUID accountId = UUID.fromString("a4bb189e-8bf9-4c8d-9d5d-139aad8e6633");
         RuntimeException expectedException = new RuntimeException("Database error");
 
-        when(accountRepository.findById(accountId)).thenReturn(Mono.error(expectedException));
+        when(accountRepository.findAccountWithTotalBalanceById(accountId)).thenReturn(Mono.error(expectedException));
 
         Mono<Account> accountMono = accountService.findById(accountId);
         StepVerifier.create(accountMono)
@@ -94,82 +94,6 @@ public class AccountServiceImplTest {
                 .verify();
     }
 
-    @Test
-    void findAccountByIdForUpdate_ok() {
-        UUID accountId = UUID.fromString("a4bb189e-8bf9-4c8d-9d5d-139aad8e6633");
-        Account account = new Account();
-        account.setId(accountId);
-
-        when(accountRepository.findAccountByIdForUpdate(accountId)).thenReturn(Mono.just(account));
-
-        Mono<Account> result = accountService.findAccountByIdForUpdate(accountId);
-
-        StepVerifier.create(result)
-                .expectNextMatches(foundAccount -> foundAccount.getId().equals(accountId))
-                .expectComplete()
-                .verify();
-    }
-
-    @Test
-    void findAccountByIdForUpdate_throwException() {
-        UUID accountId = UUID.fromString("a4bb189e-8bf9-4c8d-9d5d-139aad8e6633");
-        RuntimeException expectedException = new RuntimeException("Database error");
-
-        when(accountRepository.findAccountByIdForUpdate(accountId)).thenReturn(Mono.error(expectedException));
-
-        Mono<Account> accountMono = accountService.findAccountByIdForUpdate(accountId);
-
-        StepVerifier.create(accountMono)
-                .expectError(RuntimeException.class)
-                .verify();
-    }
-
-    @Test
-    void updateAccount_ok() {
-        UUID merchantId = UUID.fromString("a3bb189e-8bf9-4c8d-9d5d-139aad8e6633");
-        UUID accountId = UUID.fromString("a4bb189e-8bf9-4c8d-9d5d-139aad8e6633");
-        String currency = "USD";
-
-        Account account = new Account();
-        account.setId(accountId);
-        account.setCurrency(currency);
-        account.setMerchantId(merchantId);
-
-        when(accountRepository.save(account)).thenReturn(Mono.just(account));
-
-        Mono<Account> accountMono = accountService.updateAccount(account);
-
-        StepVerifier
-                .create(accountMono)
-                .expectNextMatches(savedAccount ->
-                                savedAccount.getId().equals(account.getId()) &&
-                                savedAccount.getCurrency().equals(account.getCurrency()) &&
-                                savedAccount.getMerchantId().equals(account.getMerchantId()))
-                .verifyComplete();
-    }
-
-    @Test
-    void updateAccount_throwException() {
-        UUID merchantId = UUID.fromString("a3bb189e-8bf9-4c8d-9d5d-139aad8e6633");
-        UUID accountId = UUID.fromString("a4bb189e-8bf9-4c8d-9d5d-139aad8e6633");
-        String currency = "USD";
-
-        Account account = new Account();
-        account.setId(accountId);
-        account.setCurrency(currency);
-        account.setMerchantId(merchantId);
-
-        RuntimeException expectedException = new RuntimeException("Database error");
-
-        when(accountRepository.save(account)).thenReturn(Mono.error(expectedException));
-
-        Mono<Account> accountMono = accountService.updateAccount(account);
-
-        StepVerifier.create(accountMono)
-                .expectError(RuntimeException.class)
-                .verify();
-    }
-
     @Test
     void findAccountsByMerchantId_ok() {
         UUID merchantId = UUID.fromString("a3bb189e-8bf9-4c8d-9d5d-139aad8e6633");
@@ -202,13 +126,19 @@ public class AccountServiceImplTest {
 
     @Test
     void updateAccountBalance_ok() {
+        UUID accountId = UUID.fromString("a4bb189e-8bf9-4c8d-9d5d-139aad8e6633");
         Account account = new Account();
+        account.setId(accountId);
         account.setBalance(new BigDecimal("100.00"));
 
+        Account debitedAccount = new Account();
+        debitedAccount.setId(accountId);
+        debitedAccount.setBalance(new BigDecimal("75.00"));
+
         WithdrawalRequest withdrawalRequest = new WithdrawalRequest();
         withdrawalRequest.setAmount(25);
 
-        when(accountRepository.save(account)).thenReturn(Mono.just(account));
+        when(accountRepository.debitAccountBalance(accountId, new BigDecimal(25))).thenReturn(Mono.just(debitedAccount));
 
         Mono<Account> accountMono = accountService.updateAccountBalance(account, withdrawalRequest);
 
@@ -221,12 +151,16 @@ public class AccountServiceImplTest {
 
     @Test
     void updateAccountBalance_throwException() {
+        UUID accountId = UUID.fromString("a4bb189e-8bf9-4c8d-9d5d-139aad8e6633");
         Account account = new Account();
+        account.setId(accountId);
         account.setBalance(new BigDecimal("10.00"));
 
         WithdrawalRequest withdrawalRequest = new WithdrawalRequest();
         withdrawalRequest.setAmount(25);
 
+        when(accountRepository.debitAccountBalance(accountId, new BigDecimal(25))).thenReturn(Mono.empty());
+
         Mono<Account> accountMono = accountService.updateAccountBalance(account, withdrawalRequest);
 
         StepVerifier.create(accountMono)
@@ -234,4 +168,55 @@ public class AccountServiceImplTest {
                         throwable.getMessage().equals("Not enough money on balance"))
                 .verify();
     }
+
+    @Test
+    void updateAccountBalance_sweepsBucketsOfStripedAccount() {
+        UUID accountId = UUID.fromString("a4bb189e-8bf9-4c8d-9d5d-139aad8e6633");
+        Account account = new Account();
+        account.setId(accountId);
+        account.setBalanceBuckets(8);
+
+        Account debitedAccount = new Account();
+        debitedAccount.setId(accountId);
+        debitedAccount.setBalance(new BigDecimal("5.00"));
+
+        WithdrawalRequest withdrawalRequest = new WithdrawalRequest();
+        withdrawalRequest.setAmount(25);
+
+        when(accountRepository.debitAccountBalance(accountId, new BigDecimal(25)))
+                .thenReturn(Mono.empty())
+                .thenReturn(Mono.just(debitedAccount));
+        when(accountRepository.sweepBalanceBuckets(accountId)).thenReturn(Mono.just(account));
+
+        Mono<Account> accountMono = accountService.updateAccountBalance(account, withdrawalRequest);
+
+        StepVerifier.create(accountMono)
+                .expectNext(debitedAccount)
+                .verifyComplete();
+    }
+
+    @Test
+    void creditAccount_ok() {
+        UUID accountId = UUID.fromString("a4bb189e-8bf9-4c8d-9d5d-139aad8e6633");
+        UUID transactionId = UUID.randomUUID();
+
+        when(accountRepository.creditAccountBalance(accountId, new BigDecimal("100"), transactionId.hashCode() & Integer.MAX_VALUE))
+                .thenReturn(Mono.just(1L));
+
+        StepVerifier.create(accountService.creditAccount(accountId, new BigDecimal("100"), transactionId))
+                .verifyComplete();
+    }
+
+    @Test
+    void creditAccount_throwException() {
+        UUID accountId = UUID.fromString("a4bb189e-8bf9-4c8d-9d5d-139aad8e6633");
+        UUID transactionId = UUID.randomUUID();
+
+        when(accountRepository.creditAccountBalance(accountId, new BigDecimal("100"), transactionId.hashCode() & Integer.MAX_VALUE))
+                .thenReturn(Mono.just(0L));
+
+        StepVerifier.create(accountService.creditAccount(accountId, new BigDecimal("100"), transactionId))
+                .expectError(CustomNotFoundException.class)
+                .verify();
+    }
 }
@@ -1,22 +1,32 @@
 package com.testpayments.transacitonservice.unitTest.service;
 
+import com.testpayments.transacitonservice.auth.AuthFailureLimiter;
 import com.testpayments.transacitonservice.auth.AuthServiceImpl;
+import com.testpayments.transacitonservice.auth.MerchantCredentialCache;
+import com.testpayments.transacitonservice.config.AuthFailureLimiterProperties;
+import com.testpayments.transacitonservice.config.MerchantCacheProperties;
 import com.testpayments.transacitonservice.entity.Merchant;
+import com.testpayments.transacitonservice.exception.CustomNotFoundException;
 import com.testpayments.transacitonservice.exception.UnauthorizedException;
 import com.testpayments.transacitonservice.service.MerchantService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +38,17 @@ public class AuthServiceImplTest {
     @Mock
     private MerchantService merchantService;
 
+    @Spy
+    private MerchantCredentialCache merchantCredentialCache =
+            new MerchantCredentialCache(new MerchantCacheProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private AuthFailureLimiter authFailureLimiter =
+            new AuthFailureLimiter(new AuthFailureLimiterProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private AuthFailureLimiterProperties authFailureLimiterProperties = new AuthFailureLimiterProperties();
+
     private static final String VALID_AUTH_HEADER = "Basic " + Base64.getEncoder()
             .encodeToString("b35f70de-d0a5-4c1a-a765-ccb3b6be33ac:secretKey".getBytes(StandardCharsets.UTF_8));
 
@@ -66,4 +87,104 @@ public class AuthServiceImplTest {
                 .expectError(UnauthorizedException.class)
                 .verify();
     }
+
+    @Test
+    void authenticate_usesCachedCredentials() {
+        Merchant merchant = new Merchant();
+        merchant.setId(VALID_MERCHANT_ID);
+        merchant.setSecretKey(VALID_SECRET);
+
+        when(merchantService.findByMerchantId(VALID_MERCHANT_ID)).thenReturn(Mono.just(merchant));
+
+        StepVerifier.create(authService.authenticate(VALID_AUTH_HEADER))
+                .expectNext(VALID_MERCHANT_ID)
+                .verifyComplete();
+        StepVerifier.create(authService.authenticate(VALID_AUTH_HEADER))
+                .expectNext(VALID_MERCHANT_ID)
+                .verifyComplete();
+        StepVerifier.create(authService.authenticate(INVALID_AUTH_HEADER))
+                .expectError(UnauthorizedException.class)
+                .verify();
+
+        verify(merchantService, times(1)).findByMerchantId(VALID_MERCHANT_ID);
+    }
+
+    @Test
+    void authenticate_reloadsCredentialsAfterExpiry() {
+        MerchantCacheProperties properties = new MerchantCacheProperties();
+        properties.setTtl(Duration.ZERO);
+        AuthServiceImpl expiringAuthService = new AuthServiceImpl(merchantService,
+                new MerchantCredentialCache(properties, new SimpleMeterRegistry()), authFailureLimiter);
+        Merchant merchant = new Merchant();
+        merchant.setId(VALID_MERCHANT_ID);
+        merchant.setSecretKey(VALID_SECRET);
+
+        when(merchantService.findByMerchantId(VALID_MERCHANT_ID)).thenReturn(Mono.just(merchant));
+
+        StepVerifier.create(expiringAuthService.authenticate(VALID_AUTH_HEADER))
+                .expectNext(VALID_MERCHANT_ID)
+                .verifyComplete();
+
+        merchant.setSecretKey("rotatedKey");
+
+        StepVerifier.create(expiringAuthService.authenticate(VALID_AUTH_HEADER))
+                .expectError(UnauthorizedException.class)
+                .verify();
+
+        verify(merchantService, times(2)).findByMerchantId(VALID_MERCHANT_ID);
+    }
+
+    @Test
+    void authenticate_malformedHeader() {
+        StepVerifier.create(authService.authenticate("Basic not-base64"))
+                .expectErrorMatches(throwable -> throwable instanceof UnauthorizedException &&
+                        throwable.getMessage().equals("Auth header is malformed"))
+                .verify();
+
+        StepVerifier.create(authService.authenticate(null))
+                .expectError(UnauthorizedException.class)
+                .verify();
+    }
+
+    @Test
+    void authenticate_unknownMerchantIsNotLookedUpTwice() {
+        when(merchantService.findByMerchantId(VALID_MERCHANT_ID))
+                .thenReturn(Mono.error(new CustomNotFoundException("Merchant not found")));
+
+        StepVerifier.create(authService.authenticate(VALID_AUTH_HEADER))
+                .expectError(CustomNotFoundException.class)
+                .verify();
+        StepVerifier.create(authService.authenticate(VALID_AUTH_HEADER))
+                .expectError(UnauthorizedException.class)
+                .verify();
+
+        verify(merchantService, times(1)).findByMerchantId(VALID_MERCHANT_ID);
+    }
+
+    @Test
+    void authenticate_acceptsValidSecretAfterRepeatedFailures() {
+        Merchant merchant = new Merchant();
+        merchant.setId(VALID_MERCHANT_ID);
+        merchant.setSecretKey(VALID_SECRET);
+
+        when(merchantService.findByMerchantId(VALID_MERCHANT_ID)).thenReturn(Mono.just(merchant));
+
+        int capacity = authFailureLimiterProperties.getCapacity();
+        for (int i = 0; i < capacity; i++) {
+            StepVerifier.create(authService.authenticate(INVALID_AUTH_HEADER))
+                    .expectErrorMatches(throwable -> throwable.getMessage().equals("Merchant is disabled"))
+                    .verify();
+        }
+
+        StepVerifier.withVirtualTime(() -> authService.authenticate(VALID_AUTH_HEADER))
+                .expectSubscription()
+                .expectNoEvent(authFailureLimiterProperties.getThrottleDelay().minusMillis(1))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNext(VALID_MERCHANT_ID)
+                .verifyComplete();
+        StepVerifier.withVirtualTime(() -> authService.authenticate(INVALID_AUTH_HEADER))
+                .thenAwait(authFailureLimiterProperties.getThrottleDelay())
+                .expectErrorMatches(throwable -> throwable.getMessage().equals("Merchant is disabled"))
+                .verify();
+    }
 }
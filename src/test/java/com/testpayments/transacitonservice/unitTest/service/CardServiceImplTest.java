@@ -1,9 +1,7 @@
 package com.testpayments.transacitonservice.unitTest.service;
 
-import com.testpayments.transacitonservice.dto.TopUpRequest;
 import com.testpayments.transacitonservice.entity.Card;
 import com.testpayments.transacitonservice.exception.CustomNotFoundException;
-import com.testpayments.transacitonservice.exception.InsufficientFundsException;
 import com.testpayments.transacitonservice.repository.CardRepository;
 import com.testpayments.transacitonservice.service.impl.CardServiceImpl;
 import org.junit.jupiter.api.Test;
@@ -94,104 +92,25 @@ public class CardServiceImplTest {
     }
 
     @Test
-    void createCard_ok() {
+    void creditCard_ok() {
         UUID cardId = UUID.randomUUID();
-        Card card = new Card();
-        card.setId(cardId);
+        BigDecimal amount = new BigDecimal("100");
 
-        when(cardRepository.save(card)).thenReturn(Mono.just(card));
+        when(cardRepository.creditCardBalance(cardId, amount)).thenReturn(Mono.just(1));
 
-        Mono<Card> cardMono = cardService.createCard(card);
-
-        StepVerifier.create(cardMono)
-                .expectNextMatches(createdCard -> createdCard.getId().equals(cardId))
+        StepVerifier.create(cardService.creditCard(cardId, amount))
                 .verifyComplete();
     }
 
     @Test
-    void createCard_throwException() {
+    void creditCard_throwException() {
         UUID cardId = UUID.randomUUID();
-        Card card = new Card();
-        card.setId(cardId);
-        RuntimeException runtimeException = new RuntimeException("Database error");
-
-        when(cardRepository.save(card)).thenReturn(Mono.error(runtimeException));
-
-        Mono<Card> cardMono = cardService.createCard(card);
-
-        StepVerifier.create(cardMono)
-                .expectErrorMatches(exception -> exception instanceof RuntimeException &&
-                        exception.getMessage().equals("Database error"))
-                .verify();
-    }
-
-    @Test
-    void updateCard_Success() {
-        UUID cardId = UUID.randomUUID();
-        Card card = new Card();
-        card.setId(cardId);
-        card.setBalance(new BigDecimal("100.00"));
-
-        when(cardRepository.save(card)).thenReturn(Mono.just(card));
-
-        Mono<Card> cardMono = cardService.updateCard(card);
-
-        StepVerifier.create(cardMono)
-                .expectNextMatches(updatedCard -> updatedCard.getId().equals(cardId) &&
-                        updatedCard.getBalance().compareTo(new BigDecimal("100.00")) == 0)
-                .verifyComplete();
-    }
-
-    @Test
-    void updateCard_ThrowsRuntimeException() {
-        UUID cardId = UUID.randomUUID();
-        Card card = new Card();
-        card.setId(cardId);
-        RuntimeException runtimeException = new RuntimeException("Database error");
-
-        when(cardRepository.save(card)).thenReturn(Mono.error(runtimeException));
-
-        Mono<Card> cardMono = cardService.updateCard(card);
-
-        StepVerifier.create(cardMono)
-                .expectErrorMatches(exception -> exception instanceof RuntimeException &&
-                        exception.getMessage().equals("Database error"))
-                .verify();
-    }
-
-    @Test
-    void updateCardBalance_ok() {
-        Card card = new Card();
-        card.setId(UUID.randomUUID());
-        card.setBalance(new BigDecimal("100.00"));
-
-        TopUpRequest topUpRequest = new TopUpRequest();
-        topUpRequest.setAmount(25);
-
-        when(cardRepository.save(card)).thenReturn(Mono.just(card));
-
-        Mono<Card> result = cardService.updateCardBalance(card, topUpRequest);
-
-        StepVerifier.create(result)
-                .expectNextMatches(updatedCard ->
-                        updatedCard.getBalance().compareTo(new BigDecimal("75.00")) == 0)
-                .verifyComplete();
-    }
-
-    @Test
-    void updateCardBalance_throwException() {
-        Card card = new Card();
-        card.setId(UUID.randomUUID());
-        card.setBalance(new BigDecimal("10.00"));
-
-        TopUpRequest topUpRequest = new TopUpRequest();
-        topUpRequest.setAmount(25);
+        BigDecimal amount = new BigDecimal("100");
 
-        Mono<Card> result = cardService.updateCardBalance(card, topUpRequest);
+        when(cardRepository.creditCardBalance(cardId, amount)).thenReturn(Mono.just(0));
 
-        StepVerifier.create(result)
-                .expectErrorMatches(throwable -> throwable instanceof InsufficientFundsException &&
-                        throwable.getMessage().equals("Not enough money on balance"))
+        StepVerifier.create(cardService.creditCard(cardId, amount))
+                .expectError(CustomNotFoundException.class)
                 .verify();
     }
 }
@@ -98,42 +98,4 @@ public class CustomerServiceImplTest {
                         throwable.getMessage().equals("Database error"))
                 .verify();
     }
-
-    @Test
-    void createCustomer_Success() {
-        UUID customerId = UUID.randomUUID();
-        Customer customer = new Customer();
-        customer.setId(customerId);
-        customer.setFirstName("John");
-        customer.setLastName("Doe");
-        customer.setCountry("USA");
-
-        when(customerRepository.save(customer)).thenReturn(Mono.just(customer));
-
-        Mono<Customer> customerMono = customerService.createCustomer(customer);
-
-        StepVerifier.create(customerMono)
-                .expectNextMatches(createdCustomer -> createdCustomer.getId().equals(customerId) &&
-                        createdCustomer.getFirstName().equals("John") &&
-                        createdCustomer.getLastName().equals("Doe") &&
-                        createdCustomer.getCountry().equals("USA"))
-                .verifyComplete();
-    }
-
-    @Test
-    void createCustomer_ThrowsException() {
-        UUID customerId = UUID.randomUUID();
-        Customer customer = new Customer();
-        customer.setId(customerId);
-        RuntimeException exception = new RuntimeException("Database error");
-
-        when(customerRepository.save(customer)).thenReturn(Mono.error(exception));
-
-        Mono<Customer> customerMono = customerService.createCustomer(customer);
-
-        StepVerifier.create(customerMono)
-                .expectErrorMatches(throwable -> throwable instanceof RuntimeException &&
-                        throwable.getMessage().equals("Database error"))
-                .verify();
-    }
 }
@@ -1,9 +1,12 @@
 package com.testpayments.transacitonservice.unitTest.service;
 
+import com.testpayments.transacitonservice.config.TransactionListProperties;
 import com.testpayments.transacitonservice.dto.CustomerDataDto;
 import com.testpayments.transacitonservice.dto.PaymentResponse;
 import com.testpayments.transacitonservice.dto.TopUpCardDataDto;
 import com.testpayments.transacitonservice.dto.TopUpRequest;
+import com.testpayments.transacitonservice.dto.TransactionCursor;
+import com.testpayments.transacitonservice.dto.TransactionPage;
 import com.testpayments.transacitonservice.dto.TransactionResponse;
 import com.testpayments.transacitonservice.dto.WithdrawalCardDataDto;
 import com.testpayments.transacitonservice.dto.WithdrawalRequest;
@@ -14,6 +17,12 @@ import com.testpayments.transacitonservice.entity.Status;
 import com.testpayments.transacitonservice.entity.Transaction;
 import com.testpayments.transacitonservice.entity.Type;
 import com.testpayments.transacitonservice.exception.CustomNotFoundException;
+import com.testpayments.transacitonservice.exception.InsufficientFundsException;
+import com.testpayments.transacitonservice.exception.InvalidCursorException;
+import com.testpayments.transacitonservice.exception.InvalidPageRequestException;
+import com.testpayments.transacitonservice.repository.DepositRepository;
+import com.testpayments.transacitonservice.repository.DepositResult;
+import com.testpayments.transacitonservice.repository.TransactionListingRepository;
 import com.testpayments.transacitonservice.repository.TransactionRepository;
 import com.testpayments.transacitonservice.service.AccountService;
 import com.testpayments.transacitonservice.service.CardService;
@@ -23,6 +32,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -30,11 +40,17 @@ import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,6 +62,12 @@ public class TransactionServiceImplTest {
     @Mock
     private TransactionRepository transactionRepository;
     @Mock
+    private TransactionListingRepository transactionListingRepository;
+    @Spy
+    private TransactionListProperties transactionListProperties = new TransactionListProperties();
+    @Mock
+    private DepositRepository depositRepository;
+    @Mock
     private AccountService accountService;
     @Mock
     private CustomerService customerService;
@@ -56,71 +78,34 @@ public class TransactionServiceImplTest {
     void topUp_ok() {
         UUID merchantId = UUID.randomUUID();
         UUID accountId = UUID.randomUUID();
-        UUID customerId = UUID.randomUUID();
-        UUID cardId = UUID.randomUUID();
         UUID transactionId = UUID.randomUUID();
-        String cardNumber = "1234567890123456";
-        String cvv = "123";
-        String currency = "USD";
-
-        CustomerDataDto customerData = CustomerDataDto.builder()
-                .firstName("John")
-                .lastName("Doe")
-                .country("USA")
-                .build();
-
-        TopUpCardDataDto cardData = TopUpCardDataDto.builder()
-                .cardNumber(cardNumber)
-                .svv(cvv)
-                .expDate("12/2023")
-                .build();
-
-        TopUpRequest topUpRequest = new TopUpRequest();
-        topUpRequest.setPaymentMethod("credit_card");
-        topUpRequest.setAmount(100);
-        topUpRequest.setCurrency(currency);
-        topUpRequest.setLanguage("en");
-        topUpRequest.setNotificationUrl("https://example.com/notify");
-        topUpRequest.setCustomerDataDto(customerData);
-        topUpRequest.setTopUpCardDataDto(cardData);
-
-        Account account = new Account();
-        account.setId(accountId);
-        account.setMerchantId(merchantId);
-        account.setCurrency(currency);
-
-        Customer customer = new Customer(customerId, "John", "Doe", "USA");
-
-        Card card = new Card(cardId, cardNumber, LocalDateTime.now(), cvv, currency, new BigDecimal("1000.00"), customerId);
-
-        Transaction transaction = new Transaction();
-        transaction.setId(transactionId);
-        transaction.setCardId(cardId);
-        transaction.setAccountId(accountId);
-        transaction.setAmount(new BigDecimal("100.00"));
-        transaction.setStatus(Status.IN_PROCESS);
+        TopUpRequest topUpRequest = createTopUpRequest();
 
-        when(accountService.findAccountByMerchantIdAndCurrency(merchantId, currency)).thenReturn(Mono.just(account));
-        when(customerService.findCustomerByFirstNameAndLastNameAndCountry("John", "Doe", "USA")).thenReturn(Mono.just(customer));
-        when(cardService.findCardByCardNumberAndCurrency(cardNumber, currency)).thenReturn(Mono.just(card));
-        when(cardService.updateCardBalance(card, topUpRequest)).thenReturn(Mono.just(card));
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(Mono.just(transaction));
+        when(depositRepository.deposit(eq(merchantId), any(Customer.class), any(Card.class), any(Transaction.class)))
+                .thenReturn(Mono.just(new DepositResult(accountId, transactionId, Status.IN_PROCESS)));
 
         Mono<PaymentResponse> result = transactionService.topUp(topUpRequest, merchantId);
 
         StepVerifier.create(result)
                 .expectNextMatches(paymentResponse -> paymentResponse.getStatus().equals(Status.IN_PROCESS) &&
-                        paymentResponse.getTransactionId().equals(transaction.getId()))
+                        paymentResponse.getTransactionId().equals(transactionId))
                 .verifyComplete();
+
+        verify(depositRepository).deposit(eq(merchantId),
+                argThat(customer -> customer.getFirstName().equals("John") && customer.getCountry().equals("USA")),
+                argThat(card -> card.getCardNumber().equals("1234567890123456") && card.getCvv().equals("123")),
+                argThat(transaction -> transaction.getType() == Type.TOP_UP &&
+                        transaction.getStatus() == Status.IN_PROCESS &&
+                        transaction.getAmount().compareTo(new BigDecimal("100")) == 0));
     }
 
     @Test
     void topUp_throwException() {
         UUID merchantId = UUID.randomUUID();
-        TopUpRequest topUpRequest = mock(TopUpRequest.class);
+        TopUpRequest topUpRequest = createTopUpRequest();
 
-        when(topUpRequest.getCurrency()).thenReturn("USD");
-        when(accountService.findAccountByMerchantIdAndCurrency(merchantId, "USD")).thenReturn(Mono.empty());
+        when(depositRepository.deposit(eq(merchantId), any(Customer.class), any(Card.class), any(Transaction.class)))
+                .thenReturn(Mono.just(new DepositResult(null, null, null)));
 
         Mono<PaymentResponse> result = transactionService.topUp(topUpRequest, merchantId);
 
@@ -130,6 +115,22 @@ public class TransactionServiceImplTest {
                 .verify();
     }
 
+    @Test
+    void topUp_insufficientFunds() {
+        UUID merchantId = UUID.randomUUID();
+        TopUpRequest topUpRequest = createTopUpRequest();
+
+        when(depositRepository.deposit(eq(merchantId), any(Customer.class), any(Card.class), any(Transaction.class)))
+                .thenReturn(Mono.just(new DepositResult(UUID.randomUUID(), null, null)));
+
+        Mono<PaymentResponse> result = transactionService.topUp(topUpRequest, merchantId);
+
+        StepVerifier.create(result)
+                .expectErrorMatches(throwable -> throwable instanceof InsufficientFundsException &&
+                        throwable.getMessage().equals("Not enough money on balance"))
+                .verify();
+    }
+
     @Test
     void payOut_ok() {
         UUID merchantId = UUID.randomUUID();
@@ -245,126 +246,178 @@ public class TransactionServiceImplTest {
     void getTopUpTransactions_ok() {
         Long firstDate = 1609459200L;
         Long lastDate = 1640995200L;
-        int page = 0;
         int size = 10;
         UUID merchantId = UUID.randomUUID();
-        UUID accountId = UUID.randomUUID();
-        UUID cardId = UUID.randomUUID();
-        UUID customerId = UUID.randomUUID();
-        String currency = "USD";
+        TransactionResponse transactionResponse = transactionResponse(LocalDateTime.now());
 
-        Account account = new Account();
-        account.setId(accountId);
-        account.setMerchantId(merchantId);
-        account.setCurrency(currency);
+        when(transactionListingRepository.findPageByDateRangeAndType(eq(merchantId), eq(Type.TOP_UP), any(LocalDateTime.class), any(LocalDateTime.class),
+                isNull(), eq(size + 1)))
+                .thenReturn(Flux.just(transactionResponse));
 
-        Transaction transaction = new Transaction();
-        transaction.setId(UUID.randomUUID());
-        transaction.setAccountId(accountId);
-        transaction.setCardId(cardId);
-        transaction.setCreatedAt(LocalDateTime.now());
-        transaction.setUpdatedAt(LocalDateTime.now());
-        transaction.setAmount(new BigDecimal("100.00"));
-        transaction.setCurrency(currency);
-        transaction.setType(Type.TOP_UP);
+        Mono<TransactionPage> result = transactionService.getTopUpTransactions(firstDate, lastDate, null, merchantId, 0, size);
 
-        Card card = new Card(cardId, "1234567890123456", LocalDateTime.now(), "123", "USD", new BigDecimal("1000.00"), customerId);
-        Customer customer = new Customer(customerId, "John", "Doe", currency);
+        StepVerifier.create(result)
+                .expectNextMatches(page -> page.getTransactions().size() == 1 &&
+                        page.getTransactions().get(0).getTransactionId().equals(transactionResponse.getTransactionId()) &&
+                        page.getTransactions().get(0).getCustomerDataDto().getFirstName().equals("John") &&
+                        page.getNextCursor() == null)
+                .verifyComplete();
+    }
 
-        when(accountService.findAccountsByMerchantId(merchantId)).thenReturn(Flux.just(account));
-        when(transactionRepository.findByDateRangeAndType(any(LocalDateTime.class), any(LocalDateTime.class), eq(accountId), eq(Type.TOP_UP), eq(size), eq((long) page * size)))
-                .thenReturn(Flux.just(transaction));
-        when(cardService.findCardById(cardId)).thenReturn(Mono.just(card));
-        when(customerService.findCustomerById(customerId)).thenReturn(Mono.just(customer));
+    @Test
+    void getTopUpTransactions_returnsCursorOfLastTransactionWhenMoreRemain() {
+        Long firstDate = 1609459200L;
+        Long lastDate = 1640995200L;
+        int size = 1;
+        UUID merchantId = UUID.randomUUID();
+        TransactionResponse first = transactionResponse(LocalDateTime.now().minusMinutes(1));
+        TransactionResponse second = transactionResponse(LocalDateTime.now());
 
-        Flux<TransactionResponse> result = transactionService.getTopUpTransactions(firstDate, lastDate, merchantId, page, size);
+        when(transactionListingRepository.findPageByDateRangeAndType(eq(merchantId), eq(Type.TOP_UP), any(LocalDateTime.class), any(LocalDateTime.class),
+                isNull(), eq(size + 1)))
+                .thenReturn(Flux.just(first, second));
+
+        Mono<TransactionPage> result = transactionService.getTopUpTransactions(firstDate, lastDate, null, merchantId, 0, size);
 
         StepVerifier.create(result)
-                .expectNextMatches(response -> response.getTransactionId().equals(transaction.getId()) &&
-                        response.getAmount().equals(transaction.getAmount()) &&
-                        response.getCustomerDataDto().getFirstName().equals("John"))
+                .expectNextMatches(page -> page.getTransactions().size() == 1 &&
+                        TransactionCursor.decode(page.getNextCursor()).getTransactionId().equals(first.getTransactionId()) &&
+                        TransactionCursor.decode(page.getNextCursor()).getCreatedAt().equals(first.getCreatedAt()))
                 .verifyComplete();
     }
 
     @Test
-    void getTopUpTransactions_ThrowException() {
+    void getTopUpTransactions_continuesAfterCursor() {
         Long firstDate = 1609459200L;
         Long lastDate = 1640995200L;
-        UUID merchantId = UUID.randomUUID();
-        int page = 0;
         int size = 10;
+        UUID merchantId = UUID.randomUUID();
+        TransactionResponse seen = transactionResponse(LocalDateTime.now().minusMinutes(1));
+        TransactionResponse next = transactionResponse(LocalDateTime.now());
+        String cursor = TransactionCursor.after(seen).encode();
 
-        when(accountService.findAccountsByMerchantId(merchantId)).thenReturn(Flux.empty());
+        when(transactionListingRepository.findPageByDateRangeAndType(eq(merchantId), eq(Type.TOP_UP), any(LocalDateTime.class), any(LocalDateTime.class),
+                argThat(after -> after.getTransactionId().equals(seen.getTransactionId()) && after.getCreatedAt().equals(seen.getCreatedAt())),
+                eq(size + 1)))
+                .thenReturn(Flux.just(next));
 
-        Flux<TransactionResponse> result = transactionService.getTopUpTransactions(firstDate, lastDate, merchantId, page, size);
+        Mono<TransactionPage> result = transactionService.getTopUpTransactions(firstDate, lastDate, cursor, merchantId, 0, size);
 
         StepVerifier.create(result)
-                .expectErrorMatches(throwable -> throwable instanceof CustomNotFoundException &&
-                        throwable.getMessage().equals("No transactions were found"))
-                .verify();
+                .expectNextMatches(page -> page.getTransactions().get(0).getTransactionId().equals(next.getTransactionId()))
+                .verifyComplete();
     }
 
     @Test
-    void getPayOutTransactions_ok() {
+    void getTopUpTransactions_acceptsPageNumber() {
         Long firstDate = 1609459200L;
         Long lastDate = 1640995200L;
-        int page = 0;
+        int page = 2;
         int size = 10;
         UUID merchantId = UUID.randomUUID();
-        UUID accountId = UUID.randomUUID();
-        UUID cardId = UUID.randomUUID();
-        UUID customerId = UUID.randomUUID();
-        String currency = "USD";
 
-        Account account = new Account();
-        account.setId(accountId);
-        account.setMerchantId(merchantId);
-        account.setCurrency(currency);
+        when(transactionListingRepository.findByDateRangeAndType(eq(merchantId), eq(Type.TOP_UP), any(LocalDateTime.class), any(LocalDateTime.class),
+                eq(size + 1), eq((long) page * size)))
+                .thenReturn(Flux.just(transactionResponse(LocalDateTime.now())));
 
-        Transaction transaction = new Transaction();
-        transaction.setId(UUID.randomUUID());
-        transaction.setAccountId(accountId);
-        transaction.setCardId(cardId);
-        transaction.setCreatedAt(LocalDateTime.now());
-        transaction.setUpdatedAt(LocalDateTime.now());
-        transaction.setAmount(new BigDecimal("100.00"));
-        transaction.setCurrency(currency);
-        transaction.setType(Type.PAY_OUT);
+        StepVerifier.create(transactionService.getTopUpTransactions(firstDate, lastDate, null, merchantId, page, size))
+                .expectNextMatches(transactionPage -> transactionPage.getTransactions().size() == 1)
+                .verifyComplete();
+    }
+
+    @Test
+    void getTopUpTransactions_invalidCursor() {
+        StepVerifier.create(transactionService.getTopUpTransactions(1609459200L, 1640995200L, "not-a-cursor", UUID.randomUUID(), 0, 10))
+                .expectError(InvalidCursorException.class)
+                .verify();
+    }
 
-        Card card = new Card(cardId, "1234567890123456", LocalDateTime.now(), "123", "USD", new BigDecimal("1000.00"), customerId);
-        Customer customer = new Customer(customerId, "John", "Doe", currency);
+    @Test
+    void getTopUpTransactions_coversDefaultWindowWithoutDates() {
+        int size = 10;
+        UUID merchantId = UUID.randomUUID();
+        LocalDateTime before = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        long windowSeconds = transactionListProperties.getDefaultWindow().toSeconds();
+
+        when(transactionListingRepository.findPageByDateRangeAndType(eq(merchantId), eq(Type.TOP_UP),
+                argThat(startDate -> !startDate.isBefore(before.minus(transactionListProperties.getDefaultWindow()))),
+                argThat(endDate -> !endDate.isBefore(before)),
+                isNull(), eq(size + 1)))
+                .thenReturn(Flux.just(transactionResponse(LocalDateTime.now())));
+
+        StepVerifier.create(transactionService.getTopUpTransactions(null, null, null, merchantId, 0, size))
+                .expectNextMatches(page -> page.getTransactions().size() == 1 &&
+                        page.getWindowEnd() - page.getWindowStart() == windowSeconds)
+                .verifyComplete();
+    }
 
-        when(accountService.findAccountsByMerchantId(merchantId)).thenReturn(Flux.just(account));
-        when(transactionRepository.findByDateRangeAndType(any(LocalDateTime.class), any(LocalDateTime.class), eq(accountId), eq(Type.PAY_OUT), eq(size), eq((long) page * size)))
-                .thenReturn(Flux.just(transaction));
-        when(cardService.findCardById(cardId)).thenReturn(Mono.just(card));
-        when(customerService.findCustomerById(customerId)).thenReturn(Mono.just(customer));
+    @Test
+    void getTopUpTransactions_rejectsPageSizeAboveLimit() {
+        StepVerifier.create(transactionService.getTopUpTransactions(null, null, null, UUID.randomUUID(), 0,
+                        transactionListProperties.getMaxPageSize() + 1))
+                .expectErrorMatches(throwable -> throwable instanceof InvalidPageRequestException &&
+                        throwable.getMessage().equals("Page size must be between 1 and " + transactionListProperties.getMaxPageSize()))
+                .verify();
+
+        verifyNoInteractions(transactionListingRepository);
+    }
+
+    @Test
+    void getTopUpTransactions_returnsEmptyPageWithAppliedWindow() {
+        Long firstDate = 1609459200L;
+        Long lastDate = 1640995200L;
+        UUID merchantId = UUID.randomUUID();
+        int size = 10;
+
+        when(transactionListingRepository.findPageByDateRangeAndType(eq(merchantId), eq(Type.TOP_UP), any(LocalDateTime.class), any(LocalDateTime.class),
+                isNull(), eq(size + 1)))
+                .thenReturn(Flux.empty());
+
+        Mono<TransactionPage> result = transactionService.getTopUpTransactions(firstDate, lastDate, null, merchantId, 0, size);
+
+        StepVerifier.create(result)
+                .expectNextMatches(page -> page.getTransactions().isEmpty() && page.getNextCursor() == null &&
+                        page.getWindowStart() == firstDate && page.getWindowEnd() == lastDate)
+                .verifyComplete();
+    }
+
+    @Test
+    void getPayOutTransactions_ok() {
+        Long firstDate = 1609459200L;
+        Long lastDate = 1640995200L;
+        int size = 10;
+        UUID merchantId = UUID.randomUUID();
+        TransactionResponse transactionResponse = transactionResponse(LocalDateTime.now());
 
-        Flux<TransactionResponse> result = transactionService.getPayOutTransactions(firstDate, lastDate, merchantId, page, size);
+        when(transactionListingRepository.findPageByDateRangeAndType(eq(merchantId), eq(Type.PAY_OUT), any(LocalDateTime.class), any(LocalDateTime.class),
+                isNull(), eq(size + 1)))
+                .thenReturn(Flux.just(transactionResponse));
+
+        Mono<TransactionPage> result = transactionService.getPayOutTransactions(firstDate, lastDate, null, merchantId, 0, size);
 
         StepVerifier.create(result)
-                .expectNextMatches(response -> response.getTransactionId().equals(transaction.getId()) &&
-                        response.getAmount().equals(transaction.getAmount()) &&
-                        response.getCustomerDataDto().getFirstName().equals("John"))
+                .expectNextMatches(page -> page.getTransactions().get(0).getTransactionId().equals(transactionResponse.getTransactionId()) &&
+                        page.getTransactions().get(0).getCustomerDataDto().getFirstName().equals("John"))
                 .verifyComplete();
     }
 
     @Test
-    void getPayOutTransactions_throwException() {
+    void getPayOutTransactions_returnsEmptyPageWithAppliedWindow() {
         Long firstDate = 1609459200L;
         Long lastDate = 1640995200L;
         UUID merchantId = UUID.randomUUID();
-        int page = 0;
         int size = 10;
 
-        when(accountService.findAccountsByMerchantId(merchantId)).thenReturn(Flux.empty());
+        when(transactionListingRepository.findPageByDateRangeAndType(eq(merchantId), eq(Type.PAY_OUT), any(LocalDateTime.class), any(LocalDateTime.class),
+                isNull(), eq(size + 1)))
+                .thenReturn(Flux.empty());
 
-        Flux<TransactionResponse> result = transactionService.getPayOutTransactions(firstDate, lastDate, merchantId, page, size);
+        Mono<TransactionPage> result = transactionService.getPayOutTransactions(firstDate, lastDate, null, merchantId, 0, size);
 
         StepVerifier.create(result)
-                .expectErrorMatches(throwable -> throwable instanceof CustomNotFoundException &&
-                        throwable.getMessage().equals("No transactions were found"))
-                .verify();
+                .expectNextMatches(page -> page.getTransactions().isEmpty() && page.getNextCursor() == null &&
+                        page.getWindowStart() == firstDate && page.getWindowEnd() == lastDate)
+                .verifyComplete();
     }
 
     @Test
@@ -488,64 +541,71 @@ public class TransactionServiceImplTest {
     }
 
     @Test
-    void findAllTransactionsByStatus_ok() {
-        Transaction transaction = new Transaction();
-        transaction.setId(UUID.randomUUID());
-        transaction.setStatus(Status.IN_PROCESS);
-
-        when(transactionRepository.findAllByStatus(Status.IN_PROCESS)).thenReturn(Flux.just(transaction));
-
-        Flux<Transaction> result = transactionService.findAllTransactionsByStatus(Status.IN_PROCESS);
-
-        StepVerifier.create(result)
-                .expectNextMatches(foundTransaction -> foundTransaction.getStatus() == Status.IN_PROCESS)
+    void completeClaimedTransactions_ok() {
+        Transaction claimed = new Transaction();
+        claimed.setId(UUID.randomUUID());
+        claimed.setStatus(Status.APPROVED);
+        claimed.setCreatedAt(LocalDateTime.now());
+        Transaction reclaimed = new Transaction();
+        reclaimed.setId(UUID.randomUUID());
+        reclaimed.setStatus(Status.FAILED);
+        reclaimed.setCreatedAt(LocalDateTime.now());
+
+        when(transactionRepository.completeClaimed(any(UUID[].class), any(LocalDateTime[].class), any(String[].class), eq("node-1")))
+                .thenReturn(Flux.just(claimed.getId()));
+
+        StepVerifier.create(transactionService.completeClaimedTransactions(List.of(claimed, reclaimed), "node-1"))
+                .expectNext(List.of(claimed))
                 .verifyComplete();
+
+        verify(transactionRepository).completeClaimed(
+                argThat(ids -> ids.length == 2 && ids[0].equals(claimed.getId())),
+                argThat(createdAts -> createdAts.length == 2 && createdAts[0].equals(claimed.getCreatedAt())),
+                argThat(statuses -> statuses[0].equals("APPROVED") && statuses[1].equals("FAILED")),
+                eq("node-1"));
     }
 
     @Test
-    void findAllTransactionsByStatus_throwException() {
+    void completeClaimedTransactions_throwException() {
         Transaction transaction = new Transaction();
         transaction.setId(UUID.randomUUID());
-        transaction.setStatus(Status.IN_PROCESS);
-        RuntimeException expectedException = new RuntimeException("Database error");
+        transaction.setStatus(Status.APPROVED);
 
-        when(transactionRepository.findAllByStatus(Status.IN_PROCESS)).thenReturn(Flux.error(expectedException));
+        when(transactionRepository.completeClaimed(any(UUID[].class), any(LocalDateTime[].class), any(String[].class), eq("node-1")))
+                .thenReturn(Flux.error(new RuntimeException("Database error")));
 
-        Flux<Transaction> result = transactionService.findAllTransactionsByStatus(Status.IN_PROCESS);
-
-        StepVerifier.create(result)
+        StepVerifier.create(transactionService.completeClaimedTransactions(List.of(transaction), "node-1"))
                 .expectError(RuntimeException.class)
                 .verify();
     }
 
-    @Test
-    void updateTransaction_ok() {
-        Transaction transaction = new Transaction();
-        transaction.setId(UUID.randomUUID());
-        transaction.setStatus(Status.IN_PROCESS);
-
-        when(transactionRepository.save(transaction)).thenReturn(Mono.just(transaction));
-
-        Mono<Transaction> result = transactionService.updateTransaction(transaction);
-
-        StepVerifier.create(result)
-                .expectNextMatches(savedTransaction -> savedTransaction.getStatus() == Status.IN_PROCESS)
-                .verifyComplete();
+    private TopUpRequest createTopUpRequest() {
+        TopUpRequest topUpRequest = new TopUpRequest();
+        topUpRequest.setPaymentMethod("credit_card");
+        topUpRequest.setAmount(100);
+        topUpRequest.setCurrency("USD");
+        topUpRequest.setLanguage("en");
+        topUpRequest.setNotificationUrl("https://example.com/notify");
+        topUpRequest.setCustomerDataDto(CustomerDataDto.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .country("USA")
+                .build());
+        topUpRequest.setTopUpCardDataDto(TopUpCardDataDto.builder()
+                .cardNumber("1234567890123456")
+                .svv("123")
+                .expDate("12/23")
+                .build());
+        return topUpRequest;
     }
 
-    @Test
-    void updateTransaction_throwException() {
-        Transaction transaction = new Transaction();
-        transaction.setId(UUID.randomUUID());
-        transaction.setStatus(Status.IN_PROCESS);
-
-        when(transactionRepository.save(transaction)).thenReturn(Mono.error(new RuntimeException("Database failure")));
-
-        Mono<Transaction> result = transactionService.updateTransaction(transaction);
-
-        StepVerifier.create(result)
-                .expectErrorMatches(throwable -> throwable instanceof RuntimeException &&
-                        throwable.getMessage().contains("Database failure"))
-                .verify();
+    private TransactionResponse transactionResponse(LocalDateTime createdAt) {
+        return TransactionResponse.builder()
+                .transactionId(UUID.randomUUID())
+                .amount(new BigDecimal("100.00"))
+                .currency("USD")
+                .createdAt(createdAt)
+                .customerDataDto(new CustomerDataDto("John", "Doe", "USA"))
+                .build();
     }
 }
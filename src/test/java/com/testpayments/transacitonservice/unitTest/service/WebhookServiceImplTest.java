@@ -1,8 +1,8 @@
 package com.testpayments.transacitonservice.unitTest.service;
 
-import com.testpayments.transacitonservice.entity.Status;
-import com.testpayments.transacitonservice.entity.Webhook;
-import com.testpayments.transacitonservice.repository.WebhookRepository;
+import com.testpayments.transacitonservice.entity.WebhookDelivery;
+import com.testpayments.transacitonservice.entity.WebhookDeliveryStatus;
+import com.testpayments.transacitonservice.repository.WebhookDeliveryRepository;
 import com.testpayments.transacitonservice.service.webhook.WebhookServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,6 +12,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.Mockito.when;
@@ -22,66 +24,60 @@ public class WebhookServiceImplTest {
     @InjectMocks
     private WebhookServiceImpl webhookService;
     @Mock
-    private WebhookRepository webhookRepository;
+    private WebhookDeliveryRepository webhookDeliveryRepository;
 
     @Test
-    void saveWebhook_ok() {
-        Webhook webhook = Webhook.builder()
-                .id(UUID.randomUUID())
-                .status(Status.APPROVED)
-                .responseBody("Response from server")
-                .build();
-
-        when(webhookRepository.save(webhook)).thenReturn(Mono.just(webhook));
+    void enqueueDeliveries_ok() {
+        UUID transactionId = UUID.randomUUID();
 
-        Mono<Webhook> result = webhookService.save(webhook);
+        when(webhookDeliveryRepository.enqueue(new UUID[]{transactionId})).thenReturn(Mono.just(1));
 
-        StepVerifier.create(result)
-                .expectNextMatches(savedWebhook -> savedWebhook.getId().equals(webhook.getId()) &&
-                        savedWebhook.getStatus() == Status.APPROVED &&
-                        savedWebhook.getResponseBody().equals("Response from server"))
+        StepVerifier.create(webhookService.enqueueDeliveries(List.of(transactionId)))
                 .verifyComplete();
     }
 
     @Test
-    void saveWebhook_throwException() {
-        Webhook webhook = new Webhook();
-
-        when(webhookRepository.save(webhook)).thenReturn(Mono.error(new RuntimeException("Database error")));
+    void enqueueDeliveries_throwException() {
+        UUID transactionId = UUID.randomUUID();
 
-        Mono<Webhook> result = webhookService.save(webhook);
+        when(webhookDeliveryRepository.enqueue(new UUID[]{transactionId})).thenReturn(Mono.error(new RuntimeException("Database error")));
 
-        StepVerifier.create(result)
-                .expectErrorMatches(throwable -> throwable instanceof RuntimeException &&
-                        throwable.getMessage().equals("Database error"))
+        StepVerifier.create(webhookService.enqueueDeliveries(List.of(transactionId)))
+                .expectError(RuntimeException.class)
                 .verify();
     }
 
     @Test
-    void findMaxAttemptCountByTransactionId_Successful() {
-        UUID transactionId = UUID.randomUUID();
-        int maxAttemptCount = 1;
+    void updateDelivery_writesOutcomeWhileClaimIsHeld() {
+        WebhookDelivery delivery = claimedDelivery();
 
-        when(webhookRepository.findMaxAttemptCountByTransactionId(transactionId)).thenReturn(Mono.just(maxAttemptCount));
+        when(webhookDeliveryRepository.updateClaimed(delivery.getId(), WebhookDeliveryStatus.DELIVERED, 1, delivery.getNextAttemptAt(), "node-1"))
+                .thenReturn(Mono.just(delivery));
 
-        Mono<Integer> result = webhookService.findMaxAttemptCountByTransactionId(transactionId);
-
-        StepVerifier.create(result)
-                .expectNext(maxAttemptCount)
+        StepVerifier.create(webhookService.updateDelivery(delivery))
+                .expectNext(delivery)
                 .verifyComplete();
     }
 
     @Test
-    void findMaxAttemptCountByTransactionId_throwException() {
-        UUID transactionId = UUID.randomUUID();
+    void updateDelivery_completesEmptyWhenClaimWasLost() {
+        WebhookDelivery delivery = claimedDelivery();
 
-        when(webhookRepository.findMaxAttemptCountByTransactionId(transactionId)).thenReturn(Mono.error(new RuntimeException("Database error")));
+        when(webhookDeliveryRepository.updateClaimed(delivery.getId(), WebhookDeliveryStatus.DELIVERED, 1, delivery.getNextAttemptAt(), "node-1"))
+                .thenReturn(Mono.empty());
 
-        Mono<Integer> result = webhookService.findMaxAttemptCountByTransactionId(transactionId);
+        StepVerifier.create(webhookService.updateDelivery(delivery))
+                .verifyComplete();
+    }
 
-        StepVerifier.create(result)
-                .expectErrorMatches(throwable -> throwable instanceof RuntimeException &&
-                        throwable.getMessage().equals("Database error"))
-                .verify();
+    private WebhookDelivery claimedDelivery() {
+        return WebhookDelivery.builder()
+                .id(UUID.randomUUID())
+                .transactionId(UUID.randomUUID())
+                .deliveryStatus(WebhookDeliveryStatus.DELIVERED)
+                .attemptCount(1)
+                .nextAttemptAt(LocalDateTime.now())
+                .claimedBy("node-1")
+                .build();
     }
 }